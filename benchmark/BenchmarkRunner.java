@@ -0,0 +1,82 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Benchmark runner that represents the entrance of the benchmark suite, and the main class
+ * of the jar built by benchmark/pom.xml. Every benchmark is measured in operations per
+ * microsecond, together with the allocation rate and the bytes allocated per operation reported by
+ * the GC profiler, and the results are also written to jmh-result.json so two runs can be
+ * compared. The arguments are the usual JMH options, such as a regular expression choosing the
+ * benchmarks to run or -prof, and any option given replaces the default of the suite.
+ */
+public class BenchmarkRunner {
+
+  /**
+   * The entry point of the benchmark suite.
+   *
+   * @param args the input arguments
+   * @throws RunnerException if a benchmark fails
+   * @throws CommandLineOptionException if the arguments can not be parsed
+   * @throws IOException if the help can not be printed
+   */
+  public static void main(String[] args)
+      throws RunnerException, CommandLineOptionException, IOException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    if (commandLine.shouldHelp()) {
+      commandLine.showHelp();
+      return;
+    }
+    if (commandLine.shouldList()) {
+      new Runner(commandLine).list();
+      return;
+    }
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+    if (commandLine.getIncludes().isEmpty()) {
+      options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+    }
+    if (commandLine.getBenchModes().isEmpty()) {
+      options.mode(Mode.Throughput);
+    }
+    if (!commandLine.getTimeUnit().hasValue()) {
+      options.timeUnit(TimeUnit.MICROSECONDS);
+    }
+    if (!commandLine.getWarmupIterations().hasValue()) {
+      options.warmupIterations(5);
+    }
+    if (!commandLine.getWarmupTime().hasValue()) {
+      options.warmupTime(TimeValue.seconds(1));
+    }
+    if (!commandLine.getMeasurementIterations().hasValue()) {
+      options.measurementIterations(5);
+    }
+    if (!commandLine.getMeasurementTime().hasValue()) {
+      options.measurementTime(TimeValue.seconds(1));
+    }
+    if (!commandLine.getForkCount().hasValue()) {
+      options.forks(1);
+    }
+    if (commandLine.getProfilers().isEmpty()) {
+      options.addProfiler(GCProfiler.class);
+    }
+    if (!commandLine.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      options.result("jmh-result.json");
+    }
+    new Runner(options.build()).run();
+  }
+}
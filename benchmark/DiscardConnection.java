@@ -0,0 +1,34 @@
+package benchmark;
+
+import server.network.Connection;
+
+/**
+ * The type Discard connection that encodes every message like a real connection and then drops
+ * the bytes, so the cost measured is the one of the game and not of the network.
+ */
+public class DiscardConnection extends Connection {
+
+  private long bytes;
+
+  @Override
+  protected void write(byte[] bytes, int offset, int length) {
+    this.bytes += length;
+  }
+
+  @Override
+  protected void flushWrites() {
+  }
+
+  @Override
+  public void close() {
+  }
+
+  /**
+   * Gets the number of bytes written so far.
+   *
+   * @return the number of bytes
+   */
+  public long getBytes() {
+    return bytes;
+  }
+}
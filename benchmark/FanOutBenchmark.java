@@ -0,0 +1,64 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import server.controller.GameController;
+import server.log.ConsoleSink;
+import server.log.EventLog;
+import server.log.LogLevel;
+
+/**
+ * The type Fan out benchmark that sends a frame to every player of a game and flushes it, the way
+ * each state transition does. The players are connected through connections that encode the
+ * frames and drop the bytes.
+ */
+@State(Scope.Thread)
+public class FanOutBenchmark {
+
+  /**
+   * The number of players in the game.
+   */
+  @Param({"2", "3", "4", "5", "6", "7", "8", "9"})
+  public int players;
+  private GameController controller;
+
+  /**
+   * Seat the players.
+   */
+  @Setup
+  public void setUp() {
+    EventLog.configure(LogLevel.OFF, new ConsoleSink());
+    controller = new GameController(1, players, 13, Runnable::run);
+    for (int i = 0; i < players; i++) {
+      controller.addPlayer(controller.reserveSeat(), new DiscardConnection());
+    }
+  }
+
+  /**
+   * Send an information frame to all the players.
+   *
+   * @return the game controller
+   */
+  @Benchmark
+  public GameController sendInfo() {
+    controller.sendMessageAll("INFO", "PLAYER-1 throws dice 1 2 3 4 5 ", false);
+    controller.flush();
+    return controller;
+  }
+
+  /**
+   * Send a frame that needs a response to all the players, then drop the pending responses.
+   *
+   * @return the game controller
+   */
+  @Benchmark
+  public GameController sendStartRound() {
+    controller.sendMessageAll("START_ROUND", "1");
+    controller.flush();
+    controller.clearMsg();
+    return controller;
+  }
+}
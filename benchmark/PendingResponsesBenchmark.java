@@ -0,0 +1,86 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import protocol.FrameExceptions.FrameMsgIdException;
+import server.controller.GameController;
+import server.controller.PendingResponses;
+import server.log.ConsoleSink;
+import server.log.EventLog;
+import server.log.LogLevel;
+
+/**
+ * The type Pending responses benchmark that matches and deletes the responses of a player while
+ * the given number of messages are waiting for a response from each of the players. The queue is
+ * refilled after each operation so its depth stays the same.
+ */
+@State(Scope.Thread)
+public class PendingResponsesBenchmark {
+
+  private static final int PLAYERS = 4;
+  /**
+   * The number of messages waiting for a response from each player.
+   */
+  @Param({"1", "4", "16", "64"})
+  public int depth;
+  private GameController controller;
+  private PendingResponses pending;
+  private String[] response;
+  private int lastMsgId;
+
+  /**
+   * Fill the queue of every player.
+   */
+  @Setup
+  public void setUp() {
+    EventLog.configure(LogLevel.OFF, new ConsoleSink());
+    controller = new GameController(1, PLAYERS, 13, Runnable::run);
+    pending = controller.getUnhandledMsg();
+    int msgId = 1;
+    for (int i = 0; i < depth; i++) {
+      for (int playerId = 1; playerId <= PLAYERS; playerId++) {
+        pending.add(playerId, msgId++);
+      }
+    }
+    lastMsgId = msgId - 1;
+    response = new String[]{"ACK", String.valueOf(lastMsgId)};
+  }
+
+  /**
+   * Match the response to the last message sent to the last player, the worst case of the search,
+   * and record the message again.
+   *
+   * @return the pending responses
+   * @throws FrameMsgIdException if the response does not match
+   */
+  @Benchmark
+  public PendingResponses matchMsg() throws FrameMsgIdException {
+    controller.matchMsg(PLAYERS, response);
+    pending.add(PLAYERS, lastMsgId);
+    return pending;
+  }
+
+  /**
+   * Delete all the messages of a player and record them again.
+   *
+   * @return the pending responses
+   */
+  @Benchmark
+  public PendingResponses deleteMsg() {
+    controller.deleteMsg(PLAYERS);
+    refill();
+    return pending;
+  }
+
+  /**
+   * Helper method that records the messages of the player again.
+   */
+  private void refill() {
+    for (int i = 0; i < depth; i++) {
+      pending.add(PLAYERS, lastMsgId - i * PLAYERS);
+    }
+  }
+}
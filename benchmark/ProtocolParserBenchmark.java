@@ -0,0 +1,59 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import protocol.ClientProtocol;
+import protocol.FrameExceptions;
+import protocol.ProtocolParser;
+
+/**
+ * The type Protocol parser benchmark that parses one typical message of each frame of the client
+ * protocol, as typed by a user.
+ */
+@State(Scope.Thread)
+public class ProtocolParserBenchmark {
+
+  /**
+   * The frame of the parsed message.
+   */
+  @Param({"KEEP_DICE", "SCORE_CHOICE", "ACK", "PRINT_GAME_STATE", "QUIT_GAME"})
+  public String frame;
+  private ProtocolParser parser;
+  private String message;
+
+  /**
+   * Build the parser and the message of the frame.
+   */
+  @Setup
+  public void setUp() {
+    parser = new ProtocolParser(ClientProtocol.FRAMES);
+    switch (frame) {
+      case "KEEP_DICE":
+        message = "KEEP_DICE 1234 1 0 1 1 0";
+        break;
+      case "SCORE_CHOICE":
+        message = "SCORE_CHOICE 1234 FourOfKind";
+        break;
+      case "ACK":
+        message = "ACK 1234";
+        break;
+      default:
+        message = frame + " 1234";
+        break;
+    }
+  }
+
+  /**
+   * Parse the message into its checked text form.
+   *
+   * @return the parsed message
+   * @throws FrameExceptions if the message is invalid
+   */
+  @Benchmark
+  public String parse() throws FrameExceptions {
+    return parser.parse(message);
+  }
+}
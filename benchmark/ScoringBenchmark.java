@@ -0,0 +1,86 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import server.game.DiceSource;
+import server.game.DiceVector;
+import server.game.Player;
+import server.game.ScoreCard;
+
+/**
+ * The type Scoring benchmark that scores rolls and renders the score card of a player halfway
+ * through a game, with every other slot filled.
+ */
+@State(Scope.Thread)
+public class ScoringBenchmark {
+
+  private static final int ROLLS = 1024;
+  private DiceVector[] rolls = new DiceVector[ROLLS];
+  private ScoreCard scoreCard = new ScoreCard();
+  private Player player;
+  private int next;
+
+  /**
+   * Roll the dice scored by the benchmark, and fill half of the score card of the player.
+   */
+  @Setup
+  public void setUp() {
+    DiceSource source = DiceSource.seeded(42).create(1);
+    for (int i = 0; i < ROLLS; i++) {
+      rolls[i] = new DiceVector();
+      rolls[i].roll(source);
+    }
+    player = new Player(1, new DiscardConnection(), source);
+    for (ScoreCard.Pattern pattern : ScoreCard.Pattern.values()) {
+      player.throwDices();
+      if (pattern.getIndex() % 2 == 0) {
+        player.chooseScoreSlot(pattern.name());
+      }
+    }
+  }
+
+  /**
+   * Score the next roll in every category.
+   *
+   * @return the score card
+   */
+  @Benchmark
+  public ScoreCard calculatePossibleScores() {
+    scoreCard.calculatePossibleScores(rolls[next++ & ROLLS - 1]);
+    return scoreCard;
+  }
+
+  /**
+   * Render the chosen scores of the player.
+   *
+   * @return the rendered scores
+   */
+  @Benchmark
+  public String getScoresString() {
+    return player.getScoresString();
+  }
+
+  /**
+   * Render the possible scores of the player.
+   *
+   * @return the rendered scores
+   */
+  @Benchmark
+  public String getPossibleScoresString() {
+    return player.getPossibleScoresString();
+  }
+
+  /**
+   * Score the next roll for the player and render the possible scores, which can not be served
+   * from the cache of the score card.
+   *
+   * @return the rendered scores
+   */
+  @Benchmark
+  public String rollAndGetPossibleScoresString() {
+    player.setScoreCard(rolls[next++ & ROLLS - 1]);
+    return player.getPossibleScoresString();
+  }
+}
@@ -31,7 +31,13 @@ public class ClientLauncher {
     options.addOption(
         new OptionBuilder("--PORT").hasSubOption().setSubOptionRegex(PORT_REGEX).setDesc("")
             .build());
+    options.addOption(new OptionBuilder("--BINARY")
+        .setDesc("Ask the server for the compact binary protocol.").build());
+    options.addOption(new OptionBuilder("--V2")
+        .setDesc("Ask the server for the fused turn frames of the protocol version 2.").build());
     options.addExample("--HOST localhost --PORT 1200");
+    options.addExample("--HOST localhost --PORT 1200 --BINARY");
+    options.addExample("--HOST localhost --PORT 1200 --BINARY --V2");
     options.generateUsage();
   }
 
@@ -48,7 +54,9 @@ public class ClientLauncher {
 //      ClientUi clientUi = new GraphClientUi();
       String host = validOptions.get("--HOST").getSubOptions().get(0);
       int port = Integer.parseInt(validOptions.get("--PORT").getSubOptions().get(0));
-      YahtzeeClient client = new YahtzeeClient(clientUi, host, port);
+      YahtzeeClient client = new YahtzeeClient(clientUi, host, port,
+          validOptions.containsKey("--BINARY"));
+      client.setFusedTurns(validOptions.containsKey("--V2"));
       client.connectServer();
     } catch (CmdLineExceptions ex) {
       System.out.println(ex.getMessage());
@@ -0,0 +1,185 @@
+package client.bot;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import client.controller.GameController;
+import client.ui.ClientUi;
+import protocol.BinaryFrame;
+import protocol.ClientProtocol;
+import protocol.FrameExceptions;
+import protocol.ProtocolParser;
+import protocol.WireDecoder;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The type Bot client that plays games like a user of the text client would, through the same
+ * client GameController and ClientState classes, but with the moves chosen by a policy. A bot runs
+ * on one thread, reading the frames of the server and answering every frame that needs a response
+ * after its think time.
+ */
+public class BotClient implements Runnable {
+
+  private static final String NEED_RESPONSE = "<NEED RESPONSE>";
+  private static final int DICE_NUMBER = 5;
+  private LoadGenerator generator;
+  private ProtocolParser parser = new ProtocolParser(ClientProtocol.FRAMES);
+  private ClientUi clientUi;
+  private long sentAt;
+  private String sentFrame;
+
+  /**
+   * Instantiates a new Bot client.
+   *
+   * @param generator the load generator running the bot
+   */
+  public BotClient(LoadGenerator generator) {
+    this.generator = generator;
+    this.clientUi = new BotUi(generator.getErrors());
+  }
+
+  @Override
+  public void run() {
+    for (int i = 0; i < generator.getGames(); i++) {
+      try {
+        if (!playGame()) {
+          generator.getErrors().incrementAndGet();
+        }
+      } catch (IOException ex) {
+        generator.getErrors().incrementAndGet();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Play one game on a new connection.
+   *
+   * @return true if the game was over, false if the connection broke off before
+   * @throws IOException the io exception
+   * @throws InterruptedException if the bot is interrupted while thinking
+   */
+  private boolean playGame() throws IOException, InterruptedException {
+    try (Socket socket = new Socket(generator.getHost(), generator.getPort());
+        InputStream input = new BufferedInputStream(socket.getInputStream());
+        PrintWriter output = new PrintWriter(
+            new OutputStreamWriter(socket.getOutputStream(), UTF_8), true)) {
+      socket.setTcpNoDelay(true);
+      GameController controller = new GameController(clientUi, output);
+      if (generator.isFusedTurns()) {
+        output.println(ClientProtocol.HELLO_V2);
+      }
+      if (generator.isBinary()) {
+        output.println(BinaryFrame.HELLO);
+      }
+      WireDecoder decoder = new WireDecoder();
+      sentAt = 0;
+      while (decoder.read(input)) {
+        String message = decoder.isBinary() ? decoder.getFrame().toLine(BinaryFrame.SERVER)
+            : decoder.getLine();
+        if (sentAt != 0) {
+          generator.recordLatency(sentFrame, System.nanoTime() - sentAt);
+          sentAt = 0;
+        }
+        if (message.equals(BinaryFrame.HELLO_REPLY)) {
+          controller.setBinaryOutput(socket.getOutputStream());
+          continue;
+        }
+        if (message.equals(ClientProtocol.HELLO_V2_REPLY)) {
+          controller.setFusedTurns(true);
+          continue;
+        }
+        if (!message.startsWith(BinaryFrame.SERVER)) {
+          generator.getErrors().incrementAndGet();
+          continue;
+        }
+        controller.processServerMsg(message);
+        if (message.endsWith(NEED_RESPONSE)) {
+          String[] strs = message.split("\\s+");
+          think();
+          send(controller, respond(strs));
+          if (strs[1].equals("GAME_OVER")) {
+            generator.getGamesPlayed().incrementAndGet();
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Helper method that chooses the response to a frame of the server.
+   *
+   * @param strs the tokens of the frame
+   * @return the response, as a user would type it
+   */
+  private String respond(String[] strs) {
+    String frame = strs[1];
+    String msgId = strs[2];
+    switch (frame) {
+      case "START_TURN_DICE":
+      case "CHOOSE_DICE":
+      case "INVALID_DICE_CHOICE":
+        int[] dice = new int[DICE_NUMBER];
+        for (int i = 0; i < DICE_NUMBER; i++) {
+          dice[i] = Integer.parseInt(strs[i + 3]);
+        }
+        StringBuilder builder = new StringBuilder("KEEP_DICE ").append(msgId);
+        for (int keep : generator.getPolicy().keepDice(dice)) {
+          builder.append(' ').append(keep);
+        }
+        return builder.toString();
+      case "CHOOSE_SCORE":
+      case "SCORE_CHOICE_INVALID":
+        int count = BinaryFrame.SCORE_NAMES.length;
+        int[] scores = new int[count];
+        for (int i = 0; i < count; i++) {
+          String value = strs[i * 2 + 4];
+          scores[i] = value.equals("UNAVAILABLE") ? -1 : Integer.parseInt(value);
+        }
+        return "SCORE_CHOICE " + msgId + " " + generator.getPolicy()
+            .chooseScore(BinaryFrame.SCORE_NAMES, scores);
+      default:
+        return "ACK " + msgId;
+    }
+  }
+
+  /**
+   * Helper method that sends a response through the client state machine, and starts timing the
+   * response of the server.
+   *
+   * @param controller the client controller
+   * @param response the response
+   */
+  private void send(GameController controller, String response) {
+    try {
+      String parsedMessage = parser.parse(response);
+      sentFrame = parsedMessage.substring(0, parsedMessage.indexOf(' '));
+      sentAt = System.nanoTime();
+      controller.processClientMsg(parsedMessage);
+    } catch (FrameExceptions ex) {
+      sentAt = 0;
+      generator.getErrors().incrementAndGet();
+    }
+  }
+
+  /**
+   * Helper method that waits for a random think time up to the configured one.
+   *
+   * @throws InterruptedException if the bot is interrupted
+   */
+  private void think() throws InterruptedException {
+    if (generator.getThinkMillis() > 0) {
+      Thread.sleep(ThreadLocalRandom.current().nextInt(generator.getThinkMillis() + 1));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package client.bot;
+
+import argparser.ArgParser;
+import argparser.CmdLineExceptions;
+import argparser.Option;
+import argparser.Option.OptionBuilder;
+import argparser.Options;
+
+import java.util.Map;
+
+/**
+ * The type Bot launcher that represents the entrance of the headless load generator.
+ */
+public class BotLauncher {
+
+  private static final String HOST_REGEX = "^((localhost)|((2[0-4]\\d|25[0-5]|[01]?\\d\\d?)"
+      + "\\.){3}(2[0-4]\\d|25[0-5]|[01]?\\d\\d?))$";
+  private static final String PORT_REGEX = "^([0-9]|[1-9]\\d|[1-9]\\d{2}|[1-9]\\d{3}|[1-5]"
+      + "\\d{4}|6[0-4]\\d{3}|65[0-4]\\d{2}|655[0-2]\\d|6553[0-5])$";
+  private static final String NUMBER_REGEX = "^[1-9]\\d{0,5}$";
+  private static final String MILLIS_REGEX = "^\\d{1,7}$";
+  private static final String POLICY_REGEX = "^(GREEDY|RANDOM)$";
+  private static Options options;
+
+  static {
+    options = new Options();
+    options.addOption(
+        new OptionBuilder("--HOST").setRequired().hasSubOption().setSubOptionRegex(HOST_REGEX)
+            .setDesc("The host of the server.").build());
+    options.addOption(
+        new OptionBuilder("--PORT").setRequired().hasSubOption().setSubOptionRegex(PORT_REGEX)
+            .setDesc("The port of the server.").build());
+    options.addOption(new OptionBuilder("--BOTS").hasSubOption().setSubOptionRegex(NUMBER_REGEX)
+        .setDesc("The number of bots. 1 by default.").build());
+    options.addOption(new OptionBuilder("--GAMES").hasSubOption().setSubOptionRegex(NUMBER_REGEX)
+        .setDesc("The number of games played by each bot. 1 by default.").build());
+    options.addOption(new OptionBuilder("--RAMPUP").hasSubOption().setSubOptionRegex(MILLIS_REGEX)
+        .setDesc("The milliseconds over which the bots are started. 0 by default.").build());
+    options.addOption(new OptionBuilder("--THINK").hasSubOption().setSubOptionRegex(MILLIS_REGEX)
+        .setDesc("The max milliseconds a bot thinks before each move. 0 by default.").build());
+    options.addOption(new OptionBuilder("--POLICY").hasSubOption().setSubOptionRegex(POLICY_REGEX)
+        .setDesc("The move policy: GREEDY or RANDOM. GREEDY by default.").build());
+    options.addOption(new OptionBuilder("--BINARY")
+        .setDesc("Ask the server for the compact binary protocol.").build());
+    options.addOption(new OptionBuilder("--V2")
+        .setDesc("Ask the server for the fused turn frames of the protocol version 2.").build());
+    options.addExample("--HOST localhost --PORT 1200 --BOTS 100");
+    options.addExample("--HOST localhost --PORT 1200 --BOTS 1000 --GAMES 10 --RAMPUP 5000");
+    options.addExample("--HOST localhost --PORT 1200 --BOTS 1000 --THINK 200 --POLICY RANDOM");
+    options.addExample("--HOST localhost --PORT 1200 --BOTS 1000 --BINARY");
+    options.addExample("--HOST localhost --PORT 1200 --BOTS 1000 --BINARY --V2");
+    options.generateUsage();
+  }
+
+  /**
+   * The entry point of the load generator.
+   *
+   * @param args the input arguments
+   */
+  public static void main(String[] args) {
+    ArgParser argParser = new ArgParser(args, options);
+    try {
+      Map<String, Option> validOptions = argParser.parse();
+      String host = validOptions.get("--HOST").getSubOptions().get(0);
+      int port = Integer.parseInt(validOptions.get("--PORT").getSubOptions().get(0));
+      int bots = getInt(validOptions, "--BOTS", 1);
+      int games = getInt(validOptions, "--GAMES", 1);
+      int rampUp = getInt(validOptions, "--RAMPUP", 0);
+      int think = getInt(validOptions, "--THINK", 0);
+      MovePolicy policy = validOptions.containsKey("--POLICY") && validOptions.get("--POLICY")
+          .getSubOptions().get(0).equals("RANDOM") ? new RandomPolicy() : new GreedyPolicy();
+      LoadGenerator generator = new LoadGenerator(host, port, bots, games, rampUp, think, policy,
+          validOptions.containsKey("--BINARY"));
+      generator.setFusedTurns(validOptions.containsKey("--V2"));
+      generator.run();
+    } catch (CmdLineExceptions ex) {
+      System.out.println(ex.getMessage());
+      System.out.println(options.getUsage());
+    } catch (InterruptedException ex) {
+      ex.printStackTrace();
+    }
+  }
+
+  /**
+   * Helper method that gets the number given to an option.
+   *
+   * @param validOptions the parsed options
+   * @param name the option name
+   * @param defaultValue the value if the option is not given
+   * @return the number
+   */
+  private static int getInt(Map<String, Option> validOptions, String name, int defaultValue) {
+    return validOptions.containsKey(name) ? Integer
+        .parseInt(validOptions.get(name).getSubOptions().get(0)) : defaultValue;
+  }
+}
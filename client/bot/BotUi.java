@@ -0,0 +1,42 @@
+package client.bot;
+
+import client.network.YahtzeeClient.MessageSendingHandler;
+import client.ui.ClientUi;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type Bot ui that lets the client state machine run without a user. Nothing is shown, and
+ * every message the client state machine would show to its user counts as an error, since a bot
+ * only ever sends the moves the current state expects.
+ */
+public class BotUi implements ClientUi {
+
+  private AtomicLong errors;
+
+  /**
+   * Instantiates a new Bot ui.
+   *
+   * @param errors the error counter shared by the bots
+   */
+  public BotUi(AtomicLong errors) {
+    this.errors = errors;
+  }
+
+  @Override
+  public void showServerMessage(String message) {
+  }
+
+  @Override
+  public void showClientMessage(String message) {
+    errors.incrementAndGet();
+  }
+
+  @Override
+  public void showNetworkStatus(String message) {
+  }
+
+  @Override
+  public void getInput(MessageSendingHandler handler) {
+  }
+}
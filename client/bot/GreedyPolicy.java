@@ -0,0 +1,38 @@
+package client.bot;
+
+/**
+ * The type Greedy policy that keeps the dice showing the most common face, preferring the higher
+ * face, and fills the available slot with the highest possible score.
+ */
+public class GreedyPolicy implements MovePolicy {
+
+  @Override
+  public int[] keepDice(int[] dice) {
+    int[] counts = new int[7];
+    int best = 0;
+    for (int value : dice) {
+      counts[value]++;
+    }
+    for (int face = 1; face <= 6; face++) {
+      if (counts[face] >= counts[best]) {
+        best = face;
+      }
+    }
+    int[] keeps = new int[dice.length];
+    for (int i = 0; i < dice.length; i++) {
+      keeps[i] = dice[i] == best ? 1 : 0;
+    }
+    return keeps;
+  }
+
+  @Override
+  public String chooseScore(String[] names, int[] scores) {
+    int best = -1;
+    for (int i = 0; i < scores.length; i++) {
+      if (scores[i] >= 0 && (best < 0 || scores[i] > scores[best])) {
+        best = i;
+      }
+    }
+    return names[Math.max(best, 0)];
+  }
+}
@@ -0,0 +1,222 @@
+package client.bot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type Load generator that runs many bots in one process against a server. Bots are started
+ * evenly over the ramp-up time, each plays the configured number of games, and the generator
+ * reports the games played per second and the percentiles of the time the server took to answer
+ * each kind of frame. Every bot runs on its own virtual thread when the JVM supports it.
+ */
+public class LoadGenerator {
+
+  private static final int REPORT_SECONDS = 5;
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+  private String host;
+  private int port;
+  private int bots;
+  private int games;
+  private int rampUpMillis;
+  private int thinkMillis;
+  private MovePolicy policy;
+  private boolean binary;
+  private boolean fusedTurns;
+  private AtomicLong gamesPlayed = new AtomicLong();
+  private AtomicLong errors = new AtomicLong();
+  private Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new Load generator.
+   *
+   * @param host the host
+   * @param port the port
+   * @param bots the number of bots
+   * @param games the number of games played by each bot
+   * @param rampUpMillis the time over which the bots are started
+   * @param thinkMillis the max time a bot thinks before each move
+   * @param policy the move policy
+   * @param binary true to use the binary protocol
+   */
+  public LoadGenerator(String host, int port, int bots, int games, int rampUpMillis,
+      int thinkMillis, MovePolicy policy, boolean binary) {
+    this.host = host;
+    this.port = port;
+    this.bots = bots;
+    this.games = games;
+    this.rampUpMillis = rampUpMillis;
+    this.thinkMillis = thinkMillis;
+    this.policy = policy;
+    this.binary = binary;
+  }
+
+  /**
+   * Run all the bots until they have played all their games, reporting the progress on the way.
+   *
+   * @throws InterruptedException if the generator is interrupted
+   */
+  public void run() throws InterruptedException {
+    ExecutorService service = newVirtualThreadExecutor();
+    long start = System.nanoTime();
+    long nextReport = start + TimeUnit.SECONDS.toNanos(REPORT_SECONDS);
+    for (int i = 0; i < bots; i++) {
+      long due = start + TimeUnit.MILLISECONDS.toNanos((long) rampUpMillis * i / bots);
+      while (System.nanoTime() < due) {
+        Thread.sleep(Math.max(1, TimeUnit.NANOSECONDS.toMillis(due - System.nanoTime())));
+      }
+      service.execute(new BotClient(this));
+    }
+    service.shutdown();
+    while (!service.awaitTermination(Math.max(1, nextReport - System.nanoTime()),
+        TimeUnit.NANOSECONDS)) {
+      report(start, false);
+      nextReport += TimeUnit.SECONDS.toNanos(REPORT_SECONDS);
+    }
+    report(start, true);
+  }
+
+  /**
+   * Record the time the server took to answer a frame.
+   *
+   * @param frame the frame sent by the bot
+   * @param nanos the latency in nanoseconds
+   */
+  public void recordLatency(String frame, long nanos) {
+    latencies.computeIfAbsent(frame, key -> new LatencyHistogram()).record(nanos);
+  }
+
+  /**
+   * Gets the host.
+   *
+   * @return the host
+   */
+  public String getHost() {
+    return host;
+  }
+
+  /**
+   * Gets the port.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return port;
+  }
+
+  /**
+   * Gets the number of games played by each bot.
+   *
+   * @return the games
+   */
+  public int getGames() {
+    return games;
+  }
+
+  /**
+   * Gets the max think time.
+   *
+   * @return the think time in milliseconds
+   */
+  public int getThinkMillis() {
+    return thinkMillis;
+  }
+
+  /**
+   * Gets the move policy.
+   *
+   * @return the policy
+   */
+  public MovePolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Check if the bots use the binary protocol.
+   *
+   * @return true or false
+   */
+  public boolean isBinary() {
+    return binary;
+  }
+
+  /**
+   * Check if the bots ask for the fused turn frames of the protocol version 2.
+   *
+   * @return true or false
+   */
+  public boolean isFusedTurns() {
+    return fusedTurns;
+  }
+
+  /**
+   * Sets if the bots ask for the fused turn frames of the protocol version 2.
+   *
+   * @param fusedTurns true or false
+   */
+  public void setFusedTurns(boolean fusedTurns) {
+    this.fusedTurns = fusedTurns;
+  }
+
+  /**
+   * Gets the counter of games played.
+   *
+   * @return the counter
+   */
+  public AtomicLong getGamesPlayed() {
+    return gamesPlayed;
+  }
+
+  /**
+   * Gets the counter of errors.
+   *
+   * @return the counter
+   */
+  public AtomicLong getErrors() {
+    return errors;
+  }
+
+  /**
+   * Helper method that prints the games played per second, and the latency percentiles at the end.
+   *
+   * @param start the start time
+   * @param last true for the final report
+   */
+  private void report(long start, boolean last) {
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%s %.1fs games: %d of %d, %.1f games/sec, errors: %d%n",
+        last ? "Finished" : "Running", seconds, gamesPlayed.get(), (long) bots * games,
+        gamesPlayed.get() / seconds, errors.get());
+    if (!last) {
+      return;
+    }
+    System.out.printf("%-14s %10s %10s %10s %10s %10s %10s%n", "FRAME", "COUNT", "P50(us)",
+        "P90(us)", "P99(us)", "P99.9(us)", "MAX(us)");
+    for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+      System.out.printf("%-14s %10d", entry.getKey(), histogram.getCount());
+      for (double percentile : PERCENTILES) {
+        System.out.printf(" %10d", histogram.getPercentile(percentile));
+      }
+      System.out.println();
+    }
+  }
+
+  /**
+   * Helper method that creates an executor running every task on its own virtual thread, falling
+   * back to platform threads if the JVM does not support virtual threads.
+   *
+   * @return the executor
+   */
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+}
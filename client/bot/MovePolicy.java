@@ -0,0 +1,25 @@
+package client.bot;
+
+/**
+ * The interface Move policy that decides the moves of a bot. A policy is shared by all the bots, so
+ * it must not keep any state of a game.
+ */
+public interface MovePolicy {
+
+  /**
+   * Choose the dice to keep before the next roll.
+   *
+   * @param dice the values of the five dice
+   * @return one flag per die, 1 to keep the die and 0 to roll it again
+   */
+  int[] keepDice(int[] dice);
+
+  /**
+   * Choose the score slot to fill.
+   *
+   * @param names the names of the score slots
+   * @param scores the possible score of each slot, or -1 if the slot is unavailable
+   * @return the name of the chosen slot
+   */
+  String chooseScore(String[] names, int[] scores);
+}
@@ -0,0 +1,35 @@
+package client.bot;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The type Random policy that keeps random dice and fills a random available slot.
+ */
+public class RandomPolicy implements MovePolicy {
+
+  @Override
+  public int[] keepDice(int[] dice) {
+    int[] keeps = new int[dice.length];
+    for (int i = 0; i < dice.length; i++) {
+      keeps[i] = ThreadLocalRandom.current().nextInt(2);
+    }
+    return keeps;
+  }
+
+  @Override
+  public String chooseScore(String[] names, int[] scores) {
+    int available = 0;
+    for (int score : scores) {
+      if (score >= 0) {
+        available++;
+      }
+    }
+    int chosen = available == 0 ? 0 : ThreadLocalRandom.current().nextInt(available);
+    for (int i = 0; i < scores.length; i++) {
+      if (scores[i] >= 0 && chosen-- == 0) {
+        return names[i];
+      }
+    }
+    return names[0];
+  }
+}
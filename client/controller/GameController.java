@@ -2,14 +2,19 @@ package client.controller;
 
 import client.state.ClientState;
 import client.state.Rolling;
+import client.state.ScoreAccepted;
 import client.state.Scoring;
+import client.state.StartingRoll;
 import client.state.Staying;
 import client.state.WaitingAck;
 import client.state.WaitingStart;
 import client.ui.ClientUi;
+import protocol.BinaryFrame;
 import protocol.FrameExceptions;
 import protocol.FrameExceptions.FrameMsgIdException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.Stack;
 
@@ -21,13 +26,18 @@ public class GameController {
 
   private ClientUi clientUi;
   private PrintWriter output;
+  private volatile OutputStream binaryOutput;
+  private BinaryFrame binaryFrame = new BinaryFrame();
   private ClientState waitingStart = new WaitingStart(this);
   private ClientState staying = new Staying(this);
   private ClientState waitingAck = new WaitingAck(this);
   private ClientState rolling = new Rolling(this);
   private ClientState scoring = new Scoring(this);
+  private ClientState startingRoll = new StartingRoll(this);
+  private ClientState scoreAccepted = new ScoreAccepted(this);
   private ClientState state = waitingAck;
   private Stack<String> unHandledMsg = new Stack<>();
+  private boolean fusedTurns;
 
   /**
    * Instantiates a new Game controller.
@@ -61,6 +71,9 @@ public class GameController {
       case "START_TURN":
         state = waitingAck;
         break;
+      case "START_TURN_DICE":
+        state = startingRoll;
+        break;
       case "CHOOSE_DICE":
         state = rolling;
         break;
@@ -74,7 +87,7 @@ public class GameController {
         state = scoring;
         break;
       case "SCORE_CHOICE_VALID":
-        state = waitingAck;
+        state = fusedTurns ? scoreAccepted : waitingAck;
         break;
       case "TURN_OVER":
         state = waitingAck;
@@ -171,12 +184,42 @@ public class GameController {
   }
 
   /**
-   * Send message to the server.
+   * Sets if the server plays the turns with the fused frames of the protocol version 2, where an
+   * accepted score ends the turn without a TURN_OVER to acknowledge.
+   *
+   * @param fusedTurns true or false
+   */
+  public void setFusedTurns(boolean fusedTurns) {
+    this.fusedTurns = fusedTurns;
+  }
+
+  /**
+   * Sets the output stream used once the server has accepted the binary protocol.
+   *
+   * @param binaryOutput the output stream
+   */
+  public void setBinaryOutput(OutputStream binaryOutput) {
+    this.binaryOutput = binaryOutput;
+  }
+
+  /**
+   * Send message to the server, as a binary frame if the binary protocol is used.
    *
    * @param message the message
    */
   public void sendMessage(String message) {
-    output.println(message);
+    OutputStream binaryOutput = this.binaryOutput;
+    if (binaryOutput == null) {
+      output.println(message);
+      return;
+    }
+    try {
+      binaryFrame.set(message);
+      binaryOutput.write(binaryFrame.encode());
+      binaryOutput.flush();
+    } catch (IOException ex) {
+      clientUi.showNetworkStatus("Connection break off.");
+    }
   }
 
   /**
@@ -213,4 +256,39 @@ public class GameController {
       }
     }
   }
+
+  /**
+   * Match the message id of an ACK. The server takes an ACK as acknowledging the earlier frames it
+   * let the player leave unacknowledged, so the earlier frames only waiting for an ACK are dropped
+   * with it.
+   *
+   * @param msgId the message id
+   * @throws FrameMsgIdException the frame msg id exception
+   */
+  public void matchAckId(int msgId) throws FrameMsgIdException {
+    matchMsgId(msgId);
+    unHandledMsg.removeIf(message -> {
+      String[] strs = message.split("\\s");
+      return !isMove(strs[1]) && Integer.parseInt(strs[2]) < msgId;
+    });
+  }
+
+  /**
+   * Helper method that checks if a frame waits for a move rather than an ACK.
+   *
+   * @param frame the frame
+   * @return true or false
+   */
+  private static boolean isMove(String frame) {
+    switch (frame) {
+      case "START_TURN_DICE":
+      case "CHOOSE_DICE":
+      case "INVALID_DICE_CHOICE":
+      case "CHOOSE_SCORE":
+      case "SCORE_CHOICE_INVALID":
+        return true;
+      default:
+        return false;
+    }
+  }
 }
@@ -1,16 +1,16 @@
 package client.network;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 import client.controller.GameController;
 import client.ui.ClientUi;
+import protocol.BinaryFrame;
 import protocol.ClientProtocol;
 import protocol.FrameExceptions;
 import protocol.ProtocolParser;
+import protocol.WireDecoder;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
 import java.util.concurrent.ExecutorService;
@@ -25,6 +25,8 @@ public class YahtzeeClient {
   private ClientUi clientUi;
   private String host;
   private int port;
+  private boolean binary;
+  private boolean fusedTurns;
   private ExecutorService executor = Executors.newSingleThreadExecutor();
   private ProtocolParser parser = new ProtocolParser(ClientProtocol.FRAMES);
   private boolean readyStop;
@@ -38,23 +40,72 @@ public class YahtzeeClient {
    * @param port the port
    */
   public YahtzeeClient(ClientUi clientUi, String host, int port) {
+    this(clientUi, host, port, false);
+  }
+
+  /**
+   * Instantiates a new Yahtzee client network that may ask for the binary protocol.
+   *
+   * @param clientUi the client ui
+   * @param host the host
+   * @param port the port
+   * @param binary true to ask the server for the binary protocol
+   */
+  public YahtzeeClient(ClientUi clientUi, String host, int port, boolean binary) {
     this.clientUi = clientUi;
     this.host = host;
     this.port = port;
+    this.binary = binary;
   }
 
   /**
-   * Connect server. This thread always receive the message from the server.
+   * Sets if the client asks the server for the fused turn frames of the protocol version 2.
+   *
+   * @param fusedTurns true or false
+   */
+  public void setFusedTurns(boolean fusedTurns) {
+    this.fusedTurns = fusedTurns;
+  }
+
+  /**
+   * Connect server. This thread always receive the message from the server. Binary frames from
+   * the server are turned back into their text form, and the client only starts sending binary
+   * frames once the server has accepted the binary protocol, so an older server just keeps using
+   * the text protocol.
    */
   public void connectServer() {
     try (Socket socket = new Socket(host, port);
-        BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+        InputStream input = new BufferedInputStream(socket.getInputStream());
         PrintWriter output = new PrintWriter(socket.getOutputStream(), true)) {
       clientUi.showNetworkStatus("Connecting Server and waiting for new game.");
       controller = new GameController(clientUi, output);
+      if (fusedTurns) {
+        output.println(ClientProtocol.HELLO_V2);
+      }
+      if (binary) {
+        output.println(BinaryFrame.HELLO);
+      }
       executor.execute(new MessageSendingHandler());
-      String message;
-      while ((message = input.readLine()) != null) {
+      WireDecoder decoder = new WireDecoder();
+      while (decoder.read(input)) {
+        String message;
+        try {
+          message = decoder.isBinary() ? decoder.getFrame().toLine(BinaryFrame.SERVER)
+              : decoder.getLine();
+        } catch (FrameExceptions ex) {
+          clientUi.showNetworkStatus(ex.getMessage());
+          continue;
+        }
+        if (message.equals(BinaryFrame.HELLO_REPLY)) {
+          controller.setBinaryOutput(socket.getOutputStream());
+          clientUi.showNetworkStatus("Switched to the binary protocol.");
+          continue;
+        }
+        if (message.equals(ClientProtocol.HELLO_V2_REPLY)) {
+          controller.setFusedTurns(true);
+          clientUi.showNetworkStatus("Switched to the fused turns of the protocol version 2.");
+          continue;
+        }
         controller.processServerMsg(message);
         if (message.split("\\s")[1].equals("GAME_OVER")) {
           readyStop = true;
@@ -0,0 +1,29 @@
+package client.state;
+
+import client.controller.GameController;
+
+/**
+ * The type Score accepted that represents the end of a turn in the protocol version 2. The accepted
+ * score ends the turn without a TURN_OVER, so the player waits for the next turn, and only a frame
+ * still left unacknowledged from an earlier state can be acknowledged.
+ */
+public class ScoreAccepted extends WaitingAck {
+
+  /**
+   * Instantiates a new Score accepted state object.
+   *
+   * @param controller the controller
+   */
+  public ScoreAccepted(GameController controller) {
+    super(controller);
+  }
+
+  @Override
+  public void sendAck(int msgId, String message) {
+    if (controller.getUnhandledMsg().empty()) {
+      controller.showClientMessage("The score is accepted, wait for the next turn.");
+      return;
+    }
+    super.sendAck(msgId, message);
+  }
+}
@@ -0,0 +1,25 @@
+package client.state;
+
+import client.controller.GameController;
+
+/**
+ * The type Starting roll that represents the start of a turn in the protocol version 2, where the
+ * start of the turn comes together with the first roll. The player chooses the dice to keep right
+ * away, as there is no START_TURN to acknowledge first.
+ */
+public class StartingRoll extends Rolling {
+
+  /**
+   * Instantiates a new Starting roll state object.
+   *
+   * @param controller the controller
+   */
+  public StartingRoll(GameController controller) {
+    super(controller);
+  }
+
+  @Override
+  public void sendAck(int msgId, String message) {
+    controller.showClientMessage("The turn starts with the first roll, choose the dice to keep.");
+  }
+}
@@ -18,7 +18,7 @@ public class WaitingAck extends ClientState {
 
   @Override
   public void sendAck(int msgId, String message) {
-    controller.matchMsgId(msgId);
+    controller.matchAckId(msgId);
     controller.setState(controller.getStaying());
     controller.sendMessage(String.join(" ", message));
     if (!controller.getUnhandledMsg().empty()) {
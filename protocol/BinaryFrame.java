@@ -0,0 +1,556 @@
+package protocol;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import protocol.FrameExceptions.FrameHeaderException;
+import protocol.FrameExceptions.FramePayloadException;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * The type Binary frame that represents a frame of the compact binary protocol. Either side can ask
+ * for the binary protocol by sending the HELLO line, and once the other side answers with the HELLO
+ * reply, frames are sent as:
+ *
+ * <pre>
+ * MARK | length (varint) | opcode | flags | message id (varint) | body
+ * </pre>
+ *
+ * <p>The MARK byte never starts a text line, so a reader can always tell a binary frame from a
+ * text line by its first byte. The high bits of the flags tell how the body is encoded: a number, a
+ * 5-byte dice vector, a keep mask, a 13-slot score vector, a score slot or plain text. The text of
+ * a frame is transcoded to the most compact body that renders back to exactly the same text, so a
+ * client can always rebuild the text message the server would have sent.
+ */
+public class BinaryFrame {
+
+  /**
+   * The byte that starts every binary frame.
+   */
+  public static final int MARK = 0x01;
+  /**
+   * The prefix of the text lines sent by the server.
+   */
+  public static final String SERVER = "[SERVER]";
+  /**
+   * The line that asks for the binary protocol.
+   */
+  public static final String HELLO = "HELLO BINARY";
+  /**
+   * The line that accepts the binary protocol.
+   */
+  public static final String HELLO_REPLY = SERVER + " " + HELLO;
+  /**
+   * The max length of a binary frame.
+   */
+  public static final int MAX_LENGTH = 8192;
+  /**
+   * The names of the score slots, in the order of the score vector.
+   */
+  public static final String[] SCORE_NAMES = {"Aces", "Twos", "Threes", "Fours", "Fives", "Sixes",
+      "ThreeOfKing", "FourOfKind", "FH", "SS", "LS", "Yahtzee", "Chance"};
+  private static final int FLAG_NEED_RESPONSE = 1;
+  private static final int KIND_SHIFT = 4;
+  private static final int KIND_NONE = 0;
+  private static final int KIND_NUMBER = 1;
+  private static final int KIND_DICE = 2;
+  private static final int KIND_KEEP = 3;
+  private static final int KIND_SCORE_CARD = 4;
+  private static final int KIND_POSSIBLE_SCORES = 5;
+  private static final int KIND_SCORE_SLOT = 6;
+  private static final int KIND_TEXT = 7;
+  private static final int DICE_NUMBER = 5;
+  private static final int UNAVAILABLE = -2;
+  private static final String[] FRAMES = {null, "ACK", "KEEP_DICE", "SCORE_CHOICE",
+      "PRINT_GAME_STATE", "QUIT_GAME", "START_GAME", "START_ROUND", "START_TURN", "CHOOSE_DICE",
+      "INVALID_DICE_CHOICE", "CHOOSE_SCORE", "SCORE_CHOICE_INVALID", "SCORE_CHOICE_VALID",
+      "TURN_OVER", "ROUND_OVER", "GAME_OVER", "INFO", "GAME_STATE", "START_TURN_DICE"};
+  private static final int[] KINDS = {KIND_TEXT, KIND_TEXT, KIND_KEEP, KIND_SCORE_SLOT, KIND_TEXT,
+      KIND_TEXT, KIND_TEXT, KIND_NUMBER, KIND_NUMBER, KIND_DICE, KIND_DICE, KIND_POSSIBLE_SCORES,
+      KIND_POSSIBLE_SCORES, KIND_SCORE_CARD, KIND_TEXT, KIND_NUMBER, KIND_TEXT, KIND_TEXT,
+      KIND_TEXT, KIND_DICE};
+  private static final String NEED_RESPONSE = " <NEED RESPONSE>";
+  private int opcode;
+  private int flags;
+  private int msgId;
+  private int number;
+  private byte[] dice = new byte[DICE_NUMBER];
+  private int[] scores = new int[SCORE_NAMES.length + 1];
+  private String text;
+
+  /**
+   * Sets the frame from its text form. The content is transcoded to the most compact body that
+   * renders back to the same content.
+   *
+   * @param frame the name of the frame
+   * @param msgId the message id
+   * @param content the content, or null if there is not any
+   * @param responseRequired the response required
+   * @throws FrameHeaderException if the frame has no opcode
+   */
+  public void set(String frame, int msgId, String content, boolean responseRequired)
+      throws FrameHeaderException {
+    opcode = opcodeOf(frame);
+    if (opcode == 0) {
+      throw new FrameHeaderException("FORMAT CHECK ERROR. Invalid frame was given.");
+    }
+    this.msgId = msgId;
+    int kind = KIND_NONE;
+    if (content != null) {
+      kind = KINDS[opcode];
+      if (kind != KIND_TEXT && (!parseContent(kind, content) || !content
+          .equals(renderContent(kind)))) {
+        kind = KIND_TEXT;
+      }
+      text = content;
+    }
+    flags = kind << KIND_SHIFT | (responseRequired ? FLAG_NEED_RESPONSE : 0);
+  }
+
+  /**
+   * Sets the frame from a normalized text message sent by a client, such as "KEEP_DICE 3 1 0 1 0
+   * 1".
+   *
+   * @param message the message
+   * @throws FrameHeaderException if the frame has no opcode
+   */
+  public void set(String message) throws FrameHeaderException {
+    int first = message.indexOf(' ');
+    int second = first < 0 ? -1 : message.indexOf(' ', first + 1);
+    String frame = first < 0 ? message : message.substring(0, first);
+    String id = first < 0 ? "0" : message.substring(first + 1, second < 0 ? message.length()
+        : second);
+    set(frame, Integer.parseInt(id), second < 0 ? null : message.substring(second + 1), false);
+  }
+
+  /**
+   * Encode the body of the frame, that is everything after the message id.
+   *
+   * @return the body
+   */
+  public byte[] encodeBody() {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    switch (getKind()) {
+      case KIND_NUMBER:
+        writeVarint(output, number);
+        break;
+      case KIND_DICE:
+      case KIND_KEEP:
+        output.write(dice, 0, DICE_NUMBER);
+        break;
+      case KIND_SCORE_CARD:
+      case KIND_POSSIBLE_SCORES:
+        for (int i = 0; i < scores.length - (getKind() == KIND_SCORE_CARD ? 0 : 1); i++) {
+          writeVarint(output, scores[i] << 1 ^ scores[i] >> 31);
+        }
+        break;
+      case KIND_SCORE_SLOT:
+        output.write(number);
+        break;
+      case KIND_TEXT:
+        byte[] bytes = text.getBytes(UTF_8);
+        output.write(bytes, 0, bytes.length);
+        break;
+      default:
+        break;
+    }
+    return output.toByteArray();
+  }
+
+  /**
+   * Encode the whole frame, starting with the MARK byte.
+   *
+   * @return the bytes
+   */
+  public byte[] encode() {
+    byte[] body = encodeBody();
+    byte[] header = new byte[16];
+    int length = encodeHeader(header, opcode, flags, msgId, body.length);
+    byte[] bytes = new byte[length + body.length];
+    System.arraycopy(header, 0, bytes, 0, length);
+    System.arraycopy(body, 0, bytes, length, body.length);
+    return bytes;
+  }
+
+  /**
+   * Encode the header of a frame into the given array, from the MARK byte up to the message id.
+   *
+   * @param target the array, at least 16 bytes long
+   * @param opcode the opcode
+   * @param flags the flags
+   * @param msgId the message id
+   * @param bodyLength the length of the body
+   * @return the length of the header
+   */
+  public static int encodeHeader(byte[] target, int opcode, int flags, int msgId, int bodyLength) {
+    int offset = 0;
+    target[offset++] = MARK;
+    offset = putVarint(target, offset, 2 + varintSize(msgId) + bodyLength);
+    target[offset++] = (byte) opcode;
+    target[offset++] = (byte) flags;
+    return putVarint(target, offset, msgId);
+  }
+
+  /**
+   * Decode a frame from the bytes following its length.
+   *
+   * @param bytes the bytes
+   * @param offset the offset
+   * @param length the length
+   * @throws FrameExceptions if the frame is malformed
+   */
+  public void decode(byte[] bytes, int offset, int length) throws FrameExceptions {
+    int end = offset + length;
+    if (length < 3) {
+      throw new FramePayloadException("FORMAT CHECK ERROR. Wrong number of payload was given.");
+    }
+    opcode = bytes[offset++] & 0xFF;
+    flags = bytes[offset++] & 0xFF;
+    if (opcode >= FRAMES.length || opcode == 0) {
+      throw new FrameHeaderException("FORMAT CHECK ERROR. Invalid frame was given.");
+    }
+    long value = readVarint(bytes, offset, end);
+    msgId = (int) value;
+    offset = (int) (value >>> 32);
+    int kind = getKind();
+    switch (kind) {
+      case KIND_NONE:
+        break;
+      case KIND_NUMBER:
+        value = readVarint(bytes, offset, end);
+        number = (int) value;
+        offset = (int) (value >>> 32);
+        break;
+      case KIND_DICE:
+      case KIND_KEEP:
+        checkLength(offset + DICE_NUMBER <= end);
+        for (int i = 0; i < DICE_NUMBER; i++) {
+          dice[i] = bytes[offset++];
+          checkFormat(kind == KIND_DICE ? dice[i] >= 1 && dice[i] <= 6 : dice[i] >> 1 == 0);
+        }
+        break;
+      case KIND_SCORE_CARD:
+      case KIND_POSSIBLE_SCORES:
+        for (int i = 0; i < scores.length - (kind == KIND_SCORE_CARD ? 0 : 1); i++) {
+          value = readVarint(bytes, offset, end);
+          scores[i] = (int) value >>> 1 ^ -((int) value & 1);
+          offset = (int) (value >>> 32);
+        }
+        break;
+      case KIND_SCORE_SLOT:
+        checkLength(offset < end);
+        number = bytes[offset++];
+        checkFormat(number >= 0 && number < SCORE_NAMES.length);
+        break;
+      case KIND_TEXT:
+        text = new String(bytes, offset, end - offset, UTF_8);
+        offset = end;
+        break;
+      default:
+        throw new FramePayloadException("FORMAT CHECK ERROR. Wrong payload format was given.");
+    }
+    checkLength(offset == end);
+  }
+
+  /**
+   * Gets the name of the frame.
+   *
+   * @return the frame
+   */
+  public String getFrame() {
+    return FRAMES[opcode];
+  }
+
+  /**
+   * Gets the opcode.
+   *
+   * @return the opcode
+   */
+  public int getOpcode() {
+    return opcode;
+  }
+
+  /**
+   * Gets the flags.
+   *
+   * @return the flags
+   */
+  public int getFlags() {
+    return flags;
+  }
+
+  /**
+   * Gets the message id.
+   *
+   * @return the message id
+   */
+  public int getMsgId() {
+    return msgId;
+  }
+
+  /**
+   * Check if the frame needs a response.
+   *
+   * @return true or false
+   */
+  public boolean isResponseRequired() {
+    return (flags & FLAG_NEED_RESPONSE) != 0;
+  }
+
+  /**
+   * Gets the content of the frame as text.
+   *
+   * @return the content, or null if there is not any
+   */
+  public String getContent() {
+    return getKind() == KIND_NONE ? null : renderContent(getKind());
+  }
+
+  /**
+   * Gets the frame as the tokens of its text message, such as {"KEEP_DICE", "3", "1", "0", "1",
+   * "0", "1"}.
+   *
+   * @return the tokens
+   */
+  public String[] toTokens() {
+    int kind = getKind();
+    String[] tokens;
+    if (kind == KIND_DICE || kind == KIND_KEEP) {
+      tokens = new String[2 + DICE_NUMBER];
+      for (int i = 0; i < DICE_NUMBER; i++) {
+        tokens[i + 2] = String.valueOf(dice[i]);
+      }
+    } else if (kind == KIND_NONE || kind == KIND_TEXT && text.isEmpty()) {
+      tokens = new String[2];
+    } else if (kind == KIND_SCORE_CARD || kind == KIND_POSSIBLE_SCORES) {
+      String[] content = renderContent(kind).split("\\s");
+      tokens = new String[2 + content.length];
+      System.arraycopy(content, 0, tokens, 2, content.length);
+    } else {
+      tokens = new String[]{null, null, renderContent(kind)};
+    }
+    tokens[0] = getFrame();
+    tokens[1] = String.valueOf(msgId);
+    return tokens;
+  }
+
+  /**
+   * Gets the frame as a text line with the given prefix, such as "[SERVER] CHOOSE_DICE 7 1 2 3 4
+   * 5  &lt;NEED RESPONSE&gt;".
+   *
+   * @param prefix the prefix, or null if there is not any
+   * @return the line
+   */
+  public String toLine(String prefix) {
+    String content = getContent();
+    return (prefix == null ? "" : prefix + " ") + getFrame() + " " + msgId + (content == null ? ""
+        : " " + content) + (isResponseRequired() ? NEED_RESPONSE : "");
+  }
+
+  @Override
+  public String toString() {
+    return toLine(null);
+  }
+
+  /**
+   * Gets the opcode of a frame.
+   *
+   * @param frame the name of the frame
+   * @return the opcode, or 0 if the frame has no opcode
+   */
+  public static int opcodeOf(String frame) {
+    for (int i = 1; i < FRAMES.length; i++) {
+      if (FRAMES[i].equals(frame)) {
+        return i;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Helper method that gets the body kind from the flags.
+   *
+   * @return the kind
+   */
+  private int getKind() {
+    return flags >>> KIND_SHIFT;
+  }
+
+  /**
+   * Helper method that parses the content into the fields of the given body kind.
+   *
+   * @param kind the kind
+   * @param content the content
+   * @return true if the content has the shape of the kind, false otherwise
+   */
+  private boolean parseContent(int kind, String content) {
+    String[] strs = content.split(" ");
+    try {
+      switch (kind) {
+        case KIND_NUMBER:
+          number = Integer.parseInt(content);
+          return number >= 0;
+        case KIND_DICE:
+        case KIND_KEEP:
+          if (strs.length != DICE_NUMBER) {
+            return false;
+          }
+          for (int i = 0; i < DICE_NUMBER; i++) {
+            dice[i] = Byte.parseByte(strs[i]);
+          }
+          return true;
+        case KIND_SCORE_CARD:
+        case KIND_POSSIBLE_SCORES:
+          int count = scores.length - (kind == KIND_SCORE_CARD ? 0 : 1);
+          if (strs.length != count * 2) {
+            return false;
+          }
+          for (int i = 0; i < count; i++) {
+            String value = strs[i * 2 + 1];
+            scores[i] = value.equals("UNAVAILABLE") ? UNAVAILABLE : Integer.parseInt(value);
+          }
+          return true;
+        case KIND_SCORE_SLOT:
+          for (number = 0; number < SCORE_NAMES.length; number++) {
+            if (SCORE_NAMES[number].equals(content)) {
+              return true;
+            }
+          }
+          return false;
+        default:
+          return false;
+      }
+    } catch (NumberFormatException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Helper method that renders the fields of the given body kind as text.
+   *
+   * @param kind the kind
+   * @return the content
+   */
+  private String renderContent(int kind) {
+    StringBuilder builder = new StringBuilder();
+    switch (kind) {
+      case KIND_NUMBER:
+        return String.valueOf(number);
+      case KIND_DICE:
+        for (int i = 0; i < DICE_NUMBER; i++) {
+          builder.append(dice[i]).append(' ');
+        }
+        return builder.toString();
+      case KIND_KEEP:
+        for (int i = 0; i < DICE_NUMBER; i++) {
+          builder.append(i == 0 ? "" : " ").append(dice[i]);
+        }
+        return builder.toString();
+      case KIND_SCORE_CARD:
+        for (int i = 0; i < SCORE_NAMES.length; i++) {
+          builder.append(SCORE_NAMES[i]).append(": ").append(scores[i]).append(' ');
+        }
+        return builder.append("Total: ").append(scores[SCORE_NAMES.length]).toString();
+      case KIND_POSSIBLE_SCORES:
+        for (int i = 0; i < SCORE_NAMES.length; i++) {
+          builder.append(SCORE_NAMES[i]).append(": ")
+              .append(scores[i] == UNAVAILABLE ? "UNAVAILABLE" : String.valueOf(scores[i]))
+              .append(' ');
+        }
+        return builder.toString();
+      case KIND_SCORE_SLOT:
+        return SCORE_NAMES[number];
+      default:
+        return text;
+    }
+  }
+
+  /**
+   * Helper method that writes a varint to the output.
+   *
+   * @param output the output
+   * @param value the value
+   */
+  private static void writeVarint(ByteArrayOutputStream output, int value) {
+    while ((value & ~0x7F) != 0) {
+      output.write(value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+    output.write(value);
+  }
+
+  /**
+   * Helper method that puts a varint into an array.
+   *
+   * @param target the array
+   * @param offset the offset
+   * @param value the value
+   * @return the offset after the varint
+   */
+  private static int putVarint(byte[] target, int offset, int value) {
+    while ((value & ~0x7F) != 0) {
+      target[offset++] = (byte) (value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+    target[offset++] = (byte) value;
+    return offset;
+  }
+
+  /**
+   * Helper method that gets the number of bytes of a varint.
+   *
+   * @param value the value
+   * @return the size
+   */
+  private static int varintSize(int value) {
+    int size = 1;
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  /**
+   * Helper method that reads a varint from an array.
+   *
+   * @param bytes the array
+   * @param offset the offset
+   * @param end the end of the frame
+   * @return the value in the low 32 bits and the offset after the varint in the high 32 bits
+   */
+  private static long readVarint(byte[] bytes, int offset, int end) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      checkLength(offset < end);
+      byte current = bytes[offset++];
+      value |= (current & 0x7F) << shift;
+      if (current >= 0) {
+        return (long) offset << 32 | value & 0xFFFFFFFFL;
+      }
+    }
+    throw new FramePayloadException("FORMAT CHECK ERROR. Wrong payload format was given.");
+  }
+
+  /**
+   * Helper method that checks the length of a frame.
+   *
+   * @param valid if the length is valid
+   */
+  private static void checkLength(boolean valid) {
+    if (!valid) {
+      throw new FramePayloadException("FORMAT CHECK ERROR. Wrong number of payload was given.");
+    }
+  }
+
+  /**
+   * Helper method that checks the format of a payload.
+   *
+   * @param valid if the format is valid
+   */
+  private static void checkFormat(boolean valid) {
+    if (!valid) {
+      throw new FramePayloadException("FORMAT CHECK ERROR. Wrong payload format was given.");
+    }
+  }
+}
@@ -28,6 +28,19 @@ public class ClientProtocol {
    * The constant TEXT_REGEX.
    */
   public static final String TEXT_REGEX = ".*";
+  /**
+   * The constant VERSION_REGEX.
+   */
+  public static final String VERSION_REGEX = "^\\d{1,9}$";
+  /**
+   * The line that asks for the protocol version 2, whose turns are played with fused frames: the
+   * start of a turn comes with the first roll, and an accepted score ends the turn without an ACK.
+   */
+  public static final String HELLO_V2 = "HELLO V2";
+  /**
+   * The line that accepts the protocol version 2.
+   */
+  public static final String HELLO_V2_REPLY = BinaryFrame.SERVER + " " + HELLO_V2;
 
   static {
     FRAMES.addFrame(
@@ -37,7 +50,8 @@ public class ClientProtocol {
             .build());
     FRAMES.addFrame(
         new FrameBuilder("ACK").addPayload(1, MSGID_REGEX).addPayload(1, TEXT_REGEX, true).build());
-    FRAMES.addFrame(new FrameBuilder("PRINT_GAME_STATE").addPayload(1, MSGID_REGEX).build());
+    FRAMES.addFrame(new FrameBuilder("PRINT_GAME_STATE").addPayload(1, MSGID_REGEX)
+        .addPayload(1, VERSION_REGEX, true).build());
     FRAMES.addFrame(new FrameBuilder("QUIT_GAME").addPayload(1, MSGID_REGEX).build());
   }
 }
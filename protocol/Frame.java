@@ -167,10 +167,11 @@ public class Frame {
 
     private int count;
     private String regex;
+    private PayloadMatcher matcher;
     private boolean optional;
 
     /**
-     * Instantiates a new Payload.
+     * Instantiates a new Payload. The regex is compiled once here.
      *
      * @param count the count
      * @param regex the regex
@@ -179,6 +180,7 @@ public class Frame {
     public Payload(int count, String regex, boolean optional) {
       this.count = count;
       this.regex = regex;
+      this.matcher = PayloadMatcher.compile(regex);
       this.optional = optional;
     }
 
@@ -200,6 +202,15 @@ public class Frame {
       return regex;
     }
 
+    /**
+     * Gets the compiled matcher of the regex.
+     *
+     * @return the matcher
+     */
+    public PayloadMatcher getMatcher() {
+      return matcher;
+    }
+
     /**
      * Is optional boolean.
      *
@@ -1,6 +1,8 @@
 package protocol;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -11,12 +13,15 @@ import java.util.Objects;
 public class Frames {
 
   private Map<String, Frame> total;
+  private List<Frame> list;
+  private int maxPayloadCount;
 
   /**
    * Instantiates a new Frames.
    */
   public Frames() {
     this.total = new HashMap<>();
+    this.list = new ArrayList<>();
   }
 
   /**
@@ -25,7 +30,40 @@ public class Frames {
    * @param frame the frame
    */
   public void addFrame(Frame frame) {
-    total.put(frame.getName(), frame);
+    Frame old = total.put(frame.getName(), frame);
+    if (old != null) {
+      list.remove(old);
+    }
+    list.add(frame);
+    maxPayloadCount = Math.max(maxPayloadCount, frame.getRequiredPayloadCount());
+  }
+
+  /**
+   * Gets the Frame object whose name is the given part of a text, without cutting the text.
+   *
+   * @param text the text
+   * @param start the index of the first character of the name
+   * @param end the index after the last character of the name
+   * @return the Frame object, or null if no frame has this name
+   */
+  public Frame getFrame(CharSequence text, int start, int end) {
+    for (int i = 0; i < list.size(); i++) {
+      Frame frame = list.get(i);
+      if (frame.getName().length() == end - start && PayloadMatcher
+          .regionEquals(frame.getName(), text, start)) {
+        return frame;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the biggest number of payloads of all the Frame objects.
+   *
+   * @return the max payload count
+   */
+  public int getMaxPayloadCount() {
+    return maxPayloadCount;
   }
 
   /**
@@ -0,0 +1,191 @@
+package protocol;
+
+import java.util.Arrays;
+
+/**
+ * The type Parsed frame that is a light view of a message checked by the ProtocolParser. It keeps
+ * the message as it is and only records where each of its tokens starts and ends, so tokens are
+ * never cut out of the message unless they are asked for. A parser reuses the same view for every
+ * message, so a view is only valid until the next message is parsed.
+ */
+public class ParsedFrame {
+
+  private String source;
+  private Frame frame;
+  private int count;
+  private int[] starts;
+  private int[] ends;
+  private boolean normalized;
+
+  /**
+   * Instantiates a new Parsed frame.
+   *
+   * @param capacity the number of tokens recorded without growing
+   */
+  ParsedFrame(int capacity) {
+    starts = new int[capacity];
+    ends = new int[capacity];
+  }
+
+  /**
+   * Split a message into tokens separated by whitespaces in one pass. Like splitting by the
+   * "\\s+" regex, a leading whitespace gives an empty first token and trailing whitespaces are
+   * ignored.
+   *
+   * @param message the message
+   */
+  void tokenize(String message) {
+    source = message;
+    frame = null;
+    count = 0;
+    normalized = true;
+    int length = message.length();
+    int start = 0;
+    int i = 0;
+    while (i < length) {
+      if (!isWhitespace(message.charAt(i))) {
+        i++;
+        continue;
+      }
+      addToken(start, i);
+      int separator = i;
+      while (i < length && isWhitespace(message.charAt(i))) {
+        i++;
+      }
+      if (i - separator != 1 || message.charAt(separator) != ' ' || separator == 0 || i == length) {
+        normalized = false;
+      }
+      start = i;
+    }
+    if (start < length || count == 0) {
+      addToken(start, length);
+    }
+  }
+
+  /**
+   * Sets the Frame object of the message.
+   *
+   * @param frame the frame
+   */
+  void setFrame(Frame frame) {
+    this.frame = frame;
+  }
+
+  /**
+   * Gets the Frame object of the message.
+   *
+   * @return the frame
+   */
+  public Frame getFrame() {
+    return frame;
+  }
+
+  /**
+   * Gets the message.
+   *
+   * @return the message
+   */
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * Gets the number of tokens, including the frame's name.
+   *
+   * @return the token count
+   */
+  public int getTokenCount() {
+    return count;
+  }
+
+  /**
+   * Gets the index where a token starts.
+   *
+   * @param index the index of the token
+   * @return the start index
+   */
+  public int getStart(int index) {
+    return starts[index];
+  }
+
+  /**
+   * Gets the index after the end of a token.
+   *
+   * @param index the index of the token
+   * @return the end index
+   */
+  public int getEnd(int index) {
+    return ends[index];
+  }
+
+  /**
+   * Gets a token as a string.
+   *
+   * @param index the index of the token
+   * @return the token
+   */
+  public String getToken(int index) {
+    return source.substring(starts[index], ends[index]);
+  }
+
+  /**
+   * Gets a token made of digits as a number, without cutting it out of the message.
+   *
+   * @param index the index of the token
+   * @return the number
+   */
+  public int getInt(int index) {
+    int value = 0;
+    for (int i = starts[index]; i < ends[index]; i++) {
+      value = value * 10 + source.charAt(i) - '0';
+    }
+    return value;
+  }
+
+  /**
+   * Gets the message with its tokens separated by single spaces. A message already in this form is
+   * returned as it is.
+   *
+   * @return the normalized message
+   */
+  @Override
+  public String toString() {
+    if (normalized) {
+      return source;
+    }
+    StringBuilder builder = new StringBuilder(source.length());
+    for (int i = 0; i < count; i++) {
+      if (i != 0) {
+        builder.append(' ');
+      }
+      builder.append(source, starts[i], ends[i]);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Helper method that records a token, growing the arrays if needed.
+   *
+   * @param start the start index
+   * @param end the end index
+   */
+  private void addToken(int start, int end) {
+    if (count == starts.length) {
+      starts = Arrays.copyOf(starts, count * 2 + 1);
+      ends = Arrays.copyOf(ends, count * 2 + 1);
+    }
+    starts[count] = start;
+    ends[count++] = end;
+  }
+
+  /**
+   * Helper method that checks if a character is a whitespace of the "\\s" regex.
+   *
+   * @param value the character
+   * @return true or false
+   */
+  private static boolean isWhitespace(char value) {
+    return value == ' ' || value == '\t' || value == '\n' || value == '\u000B' || value == '\f'
+        || value == '\r';
+  }
+}
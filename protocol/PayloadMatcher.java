@@ -0,0 +1,170 @@
+package protocol;
+
+import java.util.regex.Pattern;
+
+/**
+ * The type Payload matcher that checks if a payload matches the regex of its Payload prototype. The
+ * regex is compiled once: the usual shapes of payload regex (any text, a positive number, a single
+ * character class and a list of words) are checked by a few character comparisons, and any other
+ * regex falls back to a Pattern compiled once.
+ */
+public abstract class PayloadMatcher {
+
+  private static final String ANY_REGEX = ".*";
+  private static final String POSITIVE_NUMBER_REGEX = "^[1-9]\\d*$";
+
+  /**
+   * Check if a part of the text matches.
+   *
+   * @param text the text
+   * @param start the index of the first character of the part
+   * @param end the index after the last character of the part
+   * @return true or false
+   */
+  public abstract boolean matches(CharSequence text, int start, int end);
+
+  /**
+   * Compile a payload regex.
+   *
+   * @param regex the regex
+   * @return the payload matcher
+   */
+  public static PayloadMatcher compile(String regex) {
+    if (ANY_REGEX.equals(regex)) {
+      return new AnyMatcher();
+    }
+    if (POSITIVE_NUMBER_REGEX.equals(regex)) {
+      return new PositiveNumberMatcher();
+    }
+    if (regex.length() == 7 && regex.startsWith("^[") && regex.charAt(3) == '-' && regex
+        .endsWith("]$")) {
+      return new CharRangeMatcher(regex.charAt(2), regex.charAt(4));
+    }
+    if (regex.startsWith("^(") && regex.endsWith(")$") && regex.substring(2, regex.length() - 2)
+        .matches("\\w+(\\|\\w+)*")) {
+      return new WordsMatcher(regex.substring(2, regex.length() - 2).split("\\|"));
+    }
+    return new PatternMatcher(Pattern.compile(regex));
+  }
+
+  /**
+   * The type Any matcher that matches any text.
+   */
+  private static class AnyMatcher extends PayloadMatcher {
+
+    @Override
+    public boolean matches(CharSequence text, int start, int end) {
+      return true;
+    }
+  }
+
+  /**
+   * The type Positive number matcher that matches a number without leading zeros.
+   */
+  private static class PositiveNumberMatcher extends PayloadMatcher {
+
+    @Override
+    public boolean matches(CharSequence text, int start, int end) {
+      if (start >= end || text.charAt(start) < '1' || text.charAt(start) > '9') {
+        return false;
+      }
+      for (int i = start + 1; i < end; i++) {
+        if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * The type Char range matcher that matches a single character of a range.
+   */
+  private static class CharRangeMatcher extends PayloadMatcher {
+
+    private char from;
+    private char to;
+
+    /**
+     * Instantiates a new Char range matcher.
+     *
+     * @param from the first character of the range
+     * @param to the last character of the range
+     */
+    CharRangeMatcher(char from, char to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean matches(CharSequence text, int start, int end) {
+      return end - start == 1 && text.charAt(start) >= from && text.charAt(start) <= to;
+    }
+  }
+
+  /**
+   * The type Words matcher that matches one word of a list.
+   */
+  private static class WordsMatcher extends PayloadMatcher {
+
+    private String[] words;
+
+    /**
+     * Instantiates a new Words matcher.
+     *
+     * @param words the words
+     */
+    WordsMatcher(String[] words) {
+      this.words = words.clone();
+    }
+
+    @Override
+    public boolean matches(CharSequence text, int start, int end) {
+      for (String word : words) {
+        if (word.length() == end - start && regionEquals(word, text, start)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The type Pattern matcher that matches a Pattern compiled once.
+   */
+  private static class PatternMatcher extends PayloadMatcher {
+
+    private Pattern pattern;
+
+    /**
+     * Instantiates a new Pattern matcher.
+     *
+     * @param pattern the pattern
+     */
+    PatternMatcher(Pattern pattern) {
+      this.pattern = pattern;
+    }
+
+    @Override
+    public boolean matches(CharSequence text, int start, int end) {
+      return pattern.matcher(text).region(start, end).matches();
+    }
+  }
+
+  /**
+   * Check if a word equals the part of the text starting at the given index.
+   *
+   * @param word the word
+   * @param text the text
+   * @param start the index of the part
+   * @return true or false
+   */
+  static boolean regionEquals(String word, CharSequence text, int start) {
+    for (int i = 0; i < word.length(); i++) {
+      if (word.charAt(i) != text.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
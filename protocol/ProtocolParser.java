@@ -1,6 +1,5 @@
 package protocol;
 
-import argparser.CmdLineExceptions.IllegalValueException;
 import protocol.Frame.Payload;
 import protocol.FrameExceptions.FrameHeaderException;
 import protocol.FrameExceptions.FramePayloadException;
@@ -10,11 +9,13 @@ import java.util.List;
 /**
  * The type Protocol parser. It will compare the user's message to the rule of the given Frames, and
  * then check if the user's message is valid. If valid, send the message to the server. Otherwise,
- * throws a type of FrameExceptions.
+ * throws a type of FrameExceptions. A parser reuses its parsed frame view, so it must only be used
+ * by one thread.
  */
 public class ProtocolParser {
 
   private Frames frames;
+  private ParsedFrame parsed;
 
   /**
    * Instantiates a new Protocol parser.
@@ -23,6 +24,7 @@ public class ProtocolParser {
    */
   public ProtocolParser(Frames frames) {
     this.frames = frames;
+    this.parsed = new ParsedFrame(frames.getMaxPayloadCount() + 1);
   }
 
   /**
@@ -35,38 +37,52 @@ public class ProtocolParser {
    * @throws FrameExceptions the FrameExceptions
    */
   public String parse(String message) throws FrameExceptions {
-    String[] strs = message.split("\\s+");
-    int index = 0;
-    checkHeader(strs, index);
-    Frame prototype = frames.getTotal().get(strs[index++]);
-    checkPayloadCount(strs, prototype);
-    handlePayloadEach(strs, index, prototype.getPayloadGroups());
-    return String.join(" ", strs);
+    return parseFrame(message).toString();
+  }
+
+  /**
+   * Parse user's message according to the Frames object in a single pass, and return a view of the
+   * checked message. The view is reused by the next call, so it must not be kept.
+   *
+   * @param message the message
+   * @return the parsed frame
+   * @throws FrameExceptions the FrameExceptions
+   */
+  public ParsedFrame parseFrame(String message) throws FrameExceptions {
+    parsed.tokenize(message);
+    Frame prototype = checkHeader(parsed);
+    checkPayloadCount(parsed, prototype);
+    handlePayloadEach(parsed, prototype.getPayloadGroups());
+    parsed.setFrame(prototype);
+    return parsed;
   }
 
   /**
    * Helper method that checks if the frame of the user's message exist in the Frames object.
    *
-   * @param strs the user's message
-   * @param index the index of the message
-   * @throws IllegalValueException the exception
+   * @param parsed the user's message
+   * @return the prototype of the frame
+   * @throws FrameHeaderException the exception
    */
-  private void checkHeader(String[] strs, int index) throws FrameHeaderException {
-    if (strs.length == 0 || !frames.getTotal().containsKey(strs[index])) {
+  private Frame checkHeader(ParsedFrame parsed) throws FrameHeaderException {
+    Frame prototype = frames.getFrame(parsed.getSource(), parsed.getStart(0), parsed.getEnd(0));
+    if (prototype == null) {
       throw new FrameHeaderException("FORMAT CHECK ERROR. Invalid frame was given.");
     }
+    return prototype;
   }
 
   /**
    * Helper method that checks if the payload total count of the user's message is valid.
    *
-   * @param strs the user's message
+   * @param parsed the user's message
    * @param prototype the prototype of the frame
-   * @throws IllegalValueException the exception
+   * @throws FramePayloadException the exception
    */
-  private void checkPayloadCount(String[] strs, Frame prototype) throws FramePayloadException {
-    if (strs.length - 1 != prototype.getPayloadCount() && strs.length - 1 != prototype
-        .getRequiredPayloadCount()) {
+  private void checkPayloadCount(ParsedFrame parsed, Frame prototype)
+      throws FramePayloadException {
+    int count = parsed.getTokenCount() - 1;
+    if (count != prototype.getPayloadCount() && count != prototype.getRequiredPayloadCount()) {
       throw new FramePayloadException("FORMAT CHECK ERROR. Wrong number of payload was given.");
     }
   }
@@ -74,19 +90,20 @@ public class ProtocolParser {
   /**
    * Helper method that checks if eahc of the payload's format and count is valid.
    *
-   * @param strs the user's message
+   * @param parsed the user's message
    * @param protos the Payload list of the prototype frame
-   * @throws IllegalValueException the exception
+   * @throws FramePayloadException the exception
    */
-  private void handlePayloadEach(String[] strs, int index, List<Payload> protos)
+  private void handlePayloadEach(ParsedFrame parsed, List<Payload> protos)
       throws FramePayloadException {
-    for (int i = 0; i < protos.size() && index < strs.length; i++) {
-      String regex = protos.get(i).getRegex();
-      for (int j = 0; j < protos.get(i).getCount(); j++) {
-        if (!strs[index++].matches(regex)) {
+    int index = 1;
+    for (int i = 0; i < protos.size() && index < parsed.getTokenCount(); i++) {
+      PayloadMatcher matcher = protos.get(i).getMatcher();
+      for (int j = 0; j < protos.get(i).getCount(); j++, index++) {
+        if (!matcher.matches(parsed.getSource(), parsed.getStart(index), parsed.getEnd(index))) {
           throw new FramePayloadException("FORMAT CHECK ERROR. Wrong payload format was given.");
         }
       }
     }
   }
-}
\ No newline at end of file
+}
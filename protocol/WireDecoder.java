@@ -0,0 +1,162 @@
+package protocol;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * The type Wire decoder that frames inbound bytes into messages of either protocol. A message that
+ * starts with the MARK byte is a binary frame, anything else is a text line ended by a new line, so
+ * a peer can switch protocol at any message boundary. The decoder is fed one byte at a time, either
+ * by a non-blocking reader or by {@link #read(InputStream)}, and reuses its buffer and binary
+ * frame, so a decoded message is only valid until the next one is fed.
+ */
+public class WireDecoder {
+
+  private static final int START = 0;
+  private static final int TEXT = 1;
+  private static final int BINARY_LENGTH = 2;
+  private static final int BINARY_BODY = 3;
+  private byte[] buffer = new byte[256];
+  private int length;
+  private int state = START;
+  private int expected;
+  private int shift;
+  private boolean binary;
+  private BinaryFrame frame = new BinaryFrame();
+
+  /**
+   * Feed one byte to the decoder.
+   *
+   * @param value the byte
+   * @return true if a message is complete, false otherwise
+   * @throws IOException if the message is too long
+   */
+  public boolean feed(byte value) throws IOException {
+    switch (state) {
+      case START:
+        length = 0;
+        if (value == BinaryFrame.MARK) {
+          expected = 0;
+          shift = 0;
+          state = BINARY_LENGTH;
+          return false;
+        }
+        state = TEXT;
+        return feedText(value);
+      case TEXT:
+        return feedText(value);
+      case BINARY_LENGTH:
+        expected |= (value & 0x7F) << shift;
+        shift += 7;
+        if (value < 0) {
+          if (shift >= 28) {
+            throw new IOException("Frame is too long.");
+          }
+          return false;
+        }
+        if (expected > BinaryFrame.MAX_LENGTH) {
+          throw new IOException("Frame is too long.");
+        }
+        state = BINARY_BODY;
+        return expected == 0 && complete(true);
+      default:
+        append(value);
+        return length == expected && complete(true);
+    }
+  }
+
+  /**
+   * Read bytes from a blocking input stream until a message is complete. The stream should be
+   * buffered, since it is read one byte at a time.
+   *
+   * @param input the input stream
+   * @return true if a message is complete, false if the stream is closed
+   * @throws IOException the io exception
+   */
+  public boolean read(InputStream input) throws IOException {
+    int value;
+    while ((value = input.read()) != -1) {
+      if (feed((byte) value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check if the last message is a binary frame.
+   *
+   * @return true or false
+   */
+  public boolean isBinary() {
+    return binary;
+  }
+
+  /**
+   * Gets the last message as a text line.
+   *
+   * @return the line
+   */
+  public String getLine() {
+    return new String(buffer, 0, length, UTF_8);
+  }
+
+  /**
+   * Gets the last message as a decoded binary frame.
+   *
+   * @return the binary frame
+   * @throws FrameExceptions if the frame is malformed
+   */
+  public BinaryFrame getFrame() throws FrameExceptions {
+    frame.decode(buffer, 0, length);
+    return frame;
+  }
+
+  /**
+   * Helper method that feeds one byte of a text line.
+   *
+   * @param value the byte
+   * @return true if the line is complete, false otherwise
+   * @throws IOException if the line is too long
+   */
+  private boolean feedText(byte value) throws IOException {
+    if (value == '\n') {
+      return complete(false);
+    }
+    if (value != '\r') {
+      append(value);
+    }
+    return false;
+  }
+
+  /**
+   * Helper method that appends a byte to the current message.
+   *
+   * @param value the byte
+   * @throws IOException if the message is too long
+   */
+  private void append(byte value) throws IOException {
+    if (length == buffer.length) {
+      if (length >= BinaryFrame.MAX_LENGTH) {
+        throw new IOException("Line is too long.");
+      }
+      buffer = Arrays.copyOf(buffer, length * 2);
+    }
+    buffer[length++] = value;
+  }
+
+  /**
+   * Helper method that completes the current message.
+   *
+   * @param binary if the message is a binary frame
+   * @return true
+   */
+  private boolean complete(boolean binary) {
+    this.binary = binary;
+    state = START;
+    return true;
+  }
+}
@@ -5,9 +5,26 @@ import argparser.CmdLineExceptions;
 import argparser.Option;
 import argparser.Option.OptionBuilder;
 import argparser.Options;
+import server.controller.GameController;
+import server.controller.TimeoutPolicy;
+import server.game.DiceSource;
+import server.game.Player;
+import server.journal.GameJournal;
+import server.journal.JournalReplay;
+import server.log.ConsoleSink;
+import server.log.EventLog;
+import server.log.LogLevel;
+import server.metrics.Metrics;
+import server.metrics.MetricsEndpoint;
+import server.network.NioYahtzeeServer;
 import server.network.YahtzeeServer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
+import javax.management.JMException;
 
 /**
  * The type Server launcher that represents the entrance of the server application.
@@ -16,9 +33,22 @@ public class ServerLauncher {
 
   private static final int ROUND = 13;
   private static final int MAX_PLAYERS = 6;
+  private static final int MAX_TABLES = 100;
   private static final String PORT_REGEX = "^[0-9]*$";
   private static final String DEV_REGEX = "^([1-9]|1[0-2])$";
   private static final String MAX_REGEX = "^[1-9]$";
+  private static final String TABLES_REGEX = "^[1-9]\\d{0,3}$";
+  private static final String IO_REGEX = "^[1-9]\\d?$";
+  private static final String LOG_REGEX = "^(DEBUG|INFO|WARN|OFF)$";
+  private static final String SEED_REGEX = "^\\d{1,18}$";
+  private static final String METRICS_REGEX = "^[1-9]\\d{0,4}$";
+  private static final String TIMEOUT_REGEX = "^[1-9]\\d{0,3}$";
+  private static final String AFK_REGEX = "^(RESEND|ACK|PLAY|EVICT)$";
+  private static final String WATCH_REGEX = "^[1-9]\\d{0,4}$";
+  private static final String JOURNAL_REGEX = "^\\S+$";
+  private static final String WINDOW_REGEX = "^[1-9]$";
+  private static final int JOURNAL_SEGMENT_SIZE = 16 << 20;
+  private static final long JOURNAL_SYNC_MILLIS = 10;
   private static final Options OPTIONS = new Options();
 
   static {
@@ -28,9 +58,55 @@ public class ServerLauncher {
     OPTIONS.addOption(new OptionBuilder("--DEV").hasSubOption().setSubOptionRegex(DEV_REGEX)
         .setDesc("The number of round in developing mode.").build());
     OPTIONS.addOption(new OptionBuilder("--MAX").hasSubOption().setSubOptionRegex(MAX_REGEX)
-        .setDesc("The max number of players in a game.").build());
+        .setDesc("The max number of players in a game. 6 by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--TABLES").hasSubOption().setSubOptionRegex(TABLES_REGEX)
+        .setDesc("The max number of games hosted at the same time. 100 by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--IO").hasSubOption().setSubOptionRegex(IO_REGEX)
+        .setDesc("The number of non-blocking I/O threads serving all the clients.").build());
+    OPTIONS.addOption(new OptionBuilder("--VIRTUAL").setExclusive(new String[]{"--IO"})
+        .setDesc("Run every client handler on its own virtual thread. Otherwise every client uses"
+            + " two platform threads from a pool that grows with the clients connected.").build());
+    OPTIONS.addOption(new OptionBuilder("--GATHER").setExclusive(new String[]{"--IO"})
+        .setDesc("Write the messages to the clients by gathering writes.").build());
+    OPTIONS.addOption(new OptionBuilder("--LOG").hasSubOption().setSubOptionRegex(LOG_REGEX)
+        .setDesc("The log level: DEBUG, INFO, WARN or OFF. DEBUG by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--SEED").hasSubOption().setSubOptionRegex(SEED_REGEX)
+        .setDesc("Roll the dice of every game from this seed, so runs can be reproduced.").build());
+    OPTIONS.addOption(new OptionBuilder("--METRICS").hasSubOption()
+        .setSubOptionRegex(METRICS_REGEX)
+        .setDesc("Serve the metrics as plain text at http://localhost:<port>/metrics, and the"
+            + " leaderboard at /leaderboard.").build());
+    OPTIONS.addOption(new OptionBuilder("--TIMEOUT").hasSubOption()
+        .setSubOptionRegex(TIMEOUT_REGEX)
+        .setDesc("The seconds a player has to answer a frame needing a response.").build());
+    OPTIONS.addOption(new OptionBuilder("--AFK").hasSubOption().setSubOptionRegex(AFK_REGEX)
+        .setDependent(new String[]{"--TIMEOUT"})
+        .setDesc("What happens when a player does not answer in time: RESEND, ACK, PLAY or EVICT."
+            + " RESEND by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--WATCH").hasSubOption().setSubOptionRegex(WATCH_REGEX)
+        .setDesc("Serve the spectators on this port: send WATCH <table id> to watch a table.")
+        .build());
+    OPTIONS.addOption(new OptionBuilder("--JOURNAL").hasSubOption()
+        .setSubOptionRegex(JOURNAL_REGEX)
+        .setDesc("Write every game to a journal in this directory, and report the games a crash"
+            + " left in it.").build());
+    OPTIONS.addOption(new OptionBuilder("--ACK_WINDOW").hasSubOption()
+        .setSubOptionRegex(WINDOW_REGEX)
+        .setDesc("The number of frames a player may leave unacknowledged, so the next rounds and"
+            + " turns start without waiting. 1 by default, which waits for every ACK.").build());
     OPTIONS.addExample("--PORT 1200 --DEV 3");
     OPTIONS.addExample("--PORT 1200 --MAX 4");
+    OPTIONS.addExample("--PORT 1200 --MAX 4 --TABLES 200");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --IO 4");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --VIRTUAL");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --VIRTUAL --GATHER");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --IO 4 --LOG OFF");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --IO 4 --SEED 42");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --IO 4 --METRICS 9100");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --IO 4 --TIMEOUT 30 --AFK PLAY");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --IO 4 --JOURNAL journal");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --IO 4 --WATCH 1201");
+    OPTIONS.addExample("--PORT 1200 --TABLES 1000 --IO 4 --ACK_WINDOW 3");
     OPTIONS.generateUsage();
   }
 
@@ -48,11 +124,87 @@ public class ServerLauncher {
           .parseInt(validOptions.get("--DEV").getSubOptions().get(0)) : ROUND;
       int maxPlayers = validOptions.containsKey("--MAX") ? Integer
           .parseInt(validOptions.get("--MAX").getSubOptions().get(0)) : MAX_PLAYERS;
-      YahtzeeServer server = new YahtzeeServer(port, round, maxPlayers);
-      server.setUpNetwork();
+      int maxTables = validOptions.containsKey("--TABLES") ? Integer
+          .parseInt(validOptions.get("--TABLES").getSubOptions().get(0)) : MAX_TABLES;
+      if (validOptions.containsKey("--LOG")) {
+        EventLog.configure(LogLevel.valueOf(validOptions.get("--LOG").getSubOptions().get(0)),
+            new ConsoleSink());
+      }
+      Metrics.registerMBean();
+      if (validOptions.containsKey("--METRICS")) {
+        new MetricsEndpoint(Integer.parseInt(validOptions.get("--METRICS").getSubOptions().get(0)));
+      }
+      DiceSource.Factory diceSources = validOptions.containsKey("--SEED") ? DiceSource
+          .seeded(Long.parseLong(validOptions.get("--SEED").getSubOptions().get(0)))
+          : DiceSource.fast();
+      int timeout = validOptions.containsKey("--TIMEOUT") ? Integer
+          .parseInt(validOptions.get("--TIMEOUT").getSubOptions().get(0)) : 0;
+      TimeoutPolicy timeoutPolicy = validOptions.containsKey("--AFK") ? TimeoutPolicy
+          .valueOf(validOptions.get("--AFK").getSubOptions().get(0)) : TimeoutPolicy.RESEND;
+      GameJournal journal = validOptions.containsKey("--JOURNAL") ? openJournal(
+          Paths.get(validOptions.get("--JOURNAL").getSubOptions().get(0))) : null;
+      int spectatorPort = validOptions.containsKey("--WATCH") ? Integer
+          .parseInt(validOptions.get("--WATCH").getSubOptions().get(0)) : 0;
+      int ackWindow = validOptions.containsKey("--ACK_WINDOW") ? Integer
+          .parseInt(validOptions.get("--ACK_WINDOW").getSubOptions().get(0)) : 1;
+      if (validOptions.containsKey("--IO")) {
+        int ioThreads = Integer.parseInt(validOptions.get("--IO").getSubOptions().get(0));
+        NioYahtzeeServer server = new NioYahtzeeServer(port, round, maxPlayers, maxTables,
+            ioThreads);
+        server.setDiceSources(diceSources);
+        if (timeout > 0) {
+          server.setResponseTimeout(timeout, timeoutPolicy);
+        }
+        server.setJournal(journal);
+        server.setSpectatorPort(spectatorPort);
+        server.setAckWindow(ackWindow);
+        server.setUpNetwork();
+      } else {
+        YahtzeeServer server = new YahtzeeServer(port, round, maxPlayers, maxTables,
+            validOptions.containsKey("--VIRTUAL"));
+        server.setGatheringWrites(validOptions.containsKey("--GATHER"));
+        server.setDiceSources(diceSources);
+        if (timeout > 0) {
+          server.setResponseTimeout(timeout, timeoutPolicy);
+        }
+        server.setJournal(journal);
+        server.setSpectatorPort(spectatorPort);
+        server.setAckWindow(ackWindow);
+        server.setUpNetwork();
+      }
     } catch (CmdLineExceptions ex) {
       System.out.println(ex.getMessage());
       System.out.println(OPTIONS.getUsage());
+    } catch (IOException | JMException ex) {
+      System.out.println(ex.getMessage());
+    }
+  }
+
+  /**
+   * Helper method that replays the journal left by the last run, reports the games it had in
+   * progress, then opens the journal of this run after it and deletes the replayed segments.
+   *
+   * @param directory the directory of the journal
+   * @return the journal
+   * @throws IOException if the journal can not be read or written
+   */
+  private static GameJournal openJournal(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    JournalReplay replay = JournalReplay.replay(directory);
+    for (GameController game : replay.getGames().values()) {
+      StringBuilder scores = new StringBuilder();
+      for (Player player : game.getPlayers().values()) {
+        scores.append(" PLAYER-").append(player.getPlayerId()).append(' ')
+            .append(player.getTotalScoreString());
+      }
+      EventLog.get().system(game.getTableId(), "Game recovered from the journal in round "
+          + game.getCurrentRound() + "." + scores);
     }
+    System.out.println("Journal replayed " + replay.getRecords() + " records, "
+        + replay.getGames().size() + " games were in progress"
+        + (replay.isTorn() ? ", the last record was torn." : "."));
+    GameJournal journal = new GameJournal(directory, JOURNAL_SEGMENT_SIZE, JOURNAL_SYNC_MILLIS);
+    replay.retire();
+    return journal;
   }
 }
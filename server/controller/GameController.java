@@ -1,9 +1,18 @@
 package server.controller;
 
-import static server.network.YahtzeeServer.SERVER;
-
+import protocol.BinaryFrame;
+import protocol.ClientProtocol;
 import protocol.FrameExceptions.FrameMsgIdException;
+import server.game.DiceSource;
 import server.game.Player;
+import server.game.ScoreCard.Pattern;
+import server.journal.GameJournal;
+import server.leaderboard.Leaderboard;
+import server.log.EventLog;
+import server.metrics.Metrics;
+import server.network.Connection;
+import server.network.EncodedFrame;
+import server.spectator.SpectatorFeed;
 import server.state.GameOver;
 import server.state.Rolling;
 import server.state.RoundOver;
@@ -13,14 +22,17 @@ import server.state.StartingGame;
 import server.state.StartingRound;
 import server.state.StartingTurn;
 import server.state.TurnOver;
+import server.timer.HashedWheelTimer;
 
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Deque;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The type Game controller that using "State Pattern" to control the whole logic operation of the
@@ -28,6 +40,12 @@ import java.util.concurrent.CountDownLatch;
  */
 public class GameController {
 
+  private static final String UNKNOWN_FRAME = "UNKNOWN";
+  private static final String PLAYER_QUIT = "PLAYER_QUIT";
+  private static final String NO_ID_FRAME = "NO_ID";
+  private static final int EPOCH_MASK = 0x7FFF;
+  private static final int TABLE_MASK = 0xFFFF;
+  private int tableId;
   private int maxPlayer;
   private int maxRound;
   private int maxTurn = 3;
@@ -36,8 +54,10 @@ public class GameController {
   private int currentPlayerId = 1;
   private int countInCurrentRound = 1;
   private int turn = 1;
-  private int curPlayerNumber = 0;
-  private int lastPlayerId = 1;
+  private AtomicInteger curPlayerNumber = new AtomicInteger();
+  private AtomicInteger lastPlayerId = new AtomicInteger(1);
+  private int reservedSeats;
+  private Runnable seatListener;
   private ServerState startingGame = new StartingGame(this);
   private ServerState startingRound = new StartingRound(this);
   private ServerState startingTurn = new StartingTurn(this);
@@ -46,11 +66,30 @@ public class GameController {
   private ServerState turnOver = new TurnOver(this);
   private ServerState roundOver = new RoundOver(this);
   private ServerState gameOver = new GameOver(this);
-  private ServerState state = startingGame;
-  private Deque<String> unhandledMsg = new LinkedList<>();
+  private ServerState[] states = {startingGame, startingRound, startingTurn, rolling, scoring,
+      turnOver, roundOver, gameOver};
+  private volatile ServerState state = startingGame;
+  private PendingResponses unhandledMsg = new PendingResponses();
   private Map<Integer, Player> players = new HashMap<>();
   private CountDownLatch latch;
-
+  private GameMailbox mailbox;
+  private List<Connection> pendingOutputs = new ArrayList<>();
+  private DiceSource.Factory diceSources;
+  private DiceSource diceSource;
+  private int gameNumber = 1;
+  private HashedWheelTimer timer;
+  private long responseTimeout;
+  private TimeoutPolicy timeoutPolicy = TimeoutPolicy.RESEND;
+  private boolean deadlineArmed;
+  private GameJournal journal;
+  private boolean journaled;
+  private long recordedProgress;
+  private int epoch;
+  private boolean cutShort;
+  private SpectatorFeed feed = new SpectatorFeed(this);
+  private int version = 1;
+  private GameSnapshot snapshot;
+  private int ackWindow = 1;
 
   /**
    * Instantiates a new Game controller object.
@@ -59,8 +98,109 @@ public class GameController {
    * @param maxRound the max round in a game
    */
   public GameController(int maxPlayer, int maxRound) {
+    this(1, maxPlayer, maxRound);
+  }
+
+  /**
+   * Instantiates a new Game controller object hosted at the given table.
+   *
+   * @param tableId the table id
+   * @param maxPlayer the max number of players in a game
+   * @param maxRound the max round in a game
+   */
+  public GameController(int tableId, int maxPlayer, int maxRound) {
+    this(tableId, maxPlayer, maxRound, Runnable::run);
+  }
+
+  /**
+   * Instantiates a new Game controller object hosted at the given table, whose mailbox is drained
+   * by the given executor.
+   *
+   * @param tableId the table id
+   * @param maxPlayer the max number of players in a game
+   * @param maxRound the max round in a game
+   * @param executor the executor that runs the tasks of this game
+   */
+  public GameController(int tableId, int maxPlayer, int maxRound, Executor executor) {
+    this(tableId, maxPlayer, maxRound, executor, DiceSource.fast());
+  }
+
+  /**
+   * Instantiates a new Game controller object hosted at the given table, whose mailbox is drained
+   * by the given executor and whose games roll dice from sources made by the given factory.
+   *
+   * @param tableId the table id
+   * @param maxPlayer the max number of players in a game
+   * @param maxRound the max round in a game
+   * @param executor the executor that runs the tasks of this game
+   * @param diceSources the factory of the dice source of each game
+   */
+  public GameController(int tableId, int maxPlayer, int maxRound, Executor executor,
+      DiceSource.Factory diceSources) {
+    this.tableId = tableId;
     this.maxPlayer = maxPlayer;
     this.maxRound = maxRound;
+    this.mailbox = new GameMailbox(executor, this::flush);
+    this.diceSources = diceSources;
+    this.diceSource = diceSources.create(getDiceSeed());
+  }
+
+  /**
+   * Sets the deadline of the responses of the players and what happens when it passes. Only used
+   * before the first player joins.
+   *
+   * @param timer the timer checking the deadlines, or null to wait forever
+   * @param timeout the time a player has to answer, in nanoseconds
+   * @param policy the timeout policy
+   */
+  public void setResponseTimeout(HashedWheelTimer timer, long timeout, TimeoutPolicy policy) {
+    this.timer = timer;
+    this.responseTimeout = timeout;
+    this.timeoutPolicy = policy;
+  }
+
+  /**
+   * Sets the journal the games of this table are written to. The game ids then carry the epoch of
+   * the run of the journal, so they never match the ids of the games of an earlier run. Only used
+   * before the first player joins.
+   *
+   * @param journal the journal, or null to write nothing
+   */
+  public void setJournal(GameJournal journal) {
+    this.journal = journal;
+    this.epoch = journal == null ? 0 : (int) (journal.getEpoch() & EPOCH_MASK);
+  }
+
+  /**
+   * Sets the number of frames a player may leave unacknowledged. With a window of 1 the game waits
+   * for every ACK, and with a larger one the starts of the rounds and turns are sent without
+   * waiting for the players to acknowledge the frames before them. Only used before the first
+   * player joins.
+   *
+   * @param ackWindow the window, 1 or more
+   */
+  public void setAckWindow(int ackWindow) {
+    this.ackWindow = ackWindow;
+  }
+
+  /**
+   * Sets the task run on the thread of the game whenever a seat of this table frees up, so the
+   * players waiting for a seat can be given one.
+   *
+   * @param seatListener the task, or null to run nothing
+   */
+  public void setSeatListener(Runnable seatListener) {
+    this.seatListener = seatListener;
+  }
+
+  /**
+   * Post a task to the mailbox of this game. This is the only way the network layer should touch
+   * the game, so that all the state transitions of a game run one at a time.
+   *
+   * @param task the task
+   */
+  public void post(GameMailbox.Task task) {
+    mailbox.post(task);
   }
 
   /**
@@ -71,12 +211,28 @@ public class GameController {
    * @throws IOException the io exception
    */
   public void processRequest(int playerId, String request) throws IOException {
-    String[] strs = request.split("\\s");
+    processRequest(playerId, request.split("\\s"));
+  }
+
+  /**
+   * Process clients' request already split into tokens, such as a decoded binary frame.
+   *
+   * @param playerId the player id
+   * @param strs the tokens of the request
+   * @throws IOException the io exception
+   */
+  public void processRequest(int playerId, String[] strs) throws IOException {
     String frame = strs[0];
+    ServerState handler = state;
+    long start = System.nanoTime();
     try {
       switch (frame) {
         case "ACK":
-          state.ackMessage(playerId, strs);
+          if (unhandledMsg.isTrailing(playerId, Integer.parseInt(strs[1]))) {
+            matchMsg(playerId, strs);
+          } else {
+            state.ackMessage(playerId, strs);
+          }
           break;
         case "KEEP_DICE":
           state.keepDiceMessage(playerId, strs);
@@ -91,11 +247,264 @@ public class GameController {
           state.quitGameMessage(playerId, strs);
           break;
         default:
-          break;
+          Metrics.get().inbound(UNKNOWN_FRAME);
+          return;
       }
     } catch (FrameMsgIdException ex) {
       sendMessageNoId(playerId, "Response message ID does not match.");
     }
+    pipeline();
+    Metrics.get().inbound(frame);
+    Metrics.get().handled(handler.getClass(), frame, System.nanoTime() - start);
+    recordProgress();
+  }
+
+  /**
+   * Helper method that moves on from the states waiting for every player to acknowledge, as long as
+   * every player has room in the ACK window. The frames left waiting are kept as trailing records,
+   * whose ACKs are matched without going through the state.
+   *
+   * @throws IOException the io exception
+   */
+  private void pipeline() throws IOException {
+    while (ackWindow > 1 && (state == roundOver || state == startingRound) && !unhandledMsg
+        .isSettled() && unhandledMsg.hasRoom(ackWindow)) {
+      unhandledMsg.trail();
+      state.proceed();
+    }
+  }
+
+  /**
+   * Let a player whose connection is closed quit the game.
+   *
+   * @param playerId the player id
+   */
+  public void playerQuit(int playerId) {
+    ServerState handler = state;
+    long gameId = getGameId();
+    long start = System.nanoTime();
+    if (journaled) {
+      journal.leave(getGameId(), playerId);
+    }
+    if (feed.isWatched()) {
+      feed.leave(playerId);
+    }
+    handler.playerQuit(playerId);
+    changed();
+    if (handler != gameOver) {
+      Leaderboard.get().remove(gameId, playerId);
+    }
+    Metrics.get().handled(handler.getClass(), PLAYER_QUIT, System.nanoTime() - start);
+    recordProgress();
+  }
+
+  /**
+   * Record the last roll of a player in the journal and the spectator feed.
+   *
+   * @param playerId the player id
+   */
+  public void recordRoll(int playerId) {
+    journalStart();
+    Player player = getPlayer(playerId);
+    if (journaled) {
+      journal.roll(getGameId(), playerId, player.getDices().getKey());
+    }
+    if (feed.isWatched()) {
+      feed.roll(playerId, player.getDices());
+    }
+  }
+
+  /**
+   * Record the score choice of a player in the journal and the spectator feed.
+   *
+   * @param playerId the player id
+   * @param scoreName the name of the score slot
+   */
+  public void recordScore(int playerId, String scoreName) {
+    int index = Pattern.valueOf(scoreName).getIndex();
+    changed();
+    if (journaled) {
+      journal.score(getGameId(), playerId, index);
+    }
+    if (feed.isWatched()) {
+      Player player = getPlayer(playerId);
+      feed.score(playerId, scoreName, player.getScore(index), player.getTotalScore());
+    }
+  }
+
+  /**
+   * Gets the snapshot of the game at its current version, building it if the game changed since
+   * the last one.
+   *
+   * @return the snapshot
+   */
+  public GameSnapshot getGameSnapshot() {
+    if (snapshot == null || snapshot.getVersion() != version) {
+      snapshot = new GameSnapshot(snapshot, version, String.valueOf(state), players);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Helper method that moves the game to its next version, once something shown by its snapshot
+   * has changed.
+   */
+  private void changed() {
+    version++;
+  }
+
+  /**
+   * Gets the spectator feed of this table.
+   *
+   * @return the feed
+   */
+  public SpectatorFeed getFeed() {
+    return feed;
+  }
+
+  /**
+   * Gets the index of the current state, in the order the states are played.
+   *
+   * @return the state index
+   */
+  public int getStateIndex() {
+    for (int i = 0; i < states.length; i++) {
+      if (states[i] == state) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Restore the progress of a game rebuilt from the journal.
+   *
+   * @param stateIndex the index of the state
+   * @param round the round
+   * @param playerId the current player id
+   * @param count the count of players done in the round
+   * @param turn the turn
+   */
+  public void restore(int stateIndex, int round, int playerId, int count, int turn) {
+    state = states[stateIndex];
+    currentRound = round;
+    currentPlayerId = playerId;
+    countInCurrentRound = count;
+    this.turn = turn;
+    changed();
+  }
+
+  /**
+   * Helper method that writes the start of the game to the journal, with the players seated, if
+   * it has not been written yet.
+   */
+  private void journalStart() {
+    if (journal != null && !journaled) {
+      int[] playerIds = players.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+      journal.start(getGameId(), maxPlayer, maxRound, playerIds);
+      journaled = true;
+      recordedProgress = -1;
+    }
+  }
+
+  /**
+   * Helper method that writes the start of the game to the journal once it leaves the starting
+   * game state, then records its progress in the journal and the spectator feed each time a
+   * request has changed it.
+   */
+  private void recordProgress() {
+    if (state != startingGame) {
+      journalStart();
+    }
+    boolean watched = feed.isWatched();
+    if (!journaled && !watched) {
+      return;
+    }
+    int stateIndex = getStateIndex();
+    long progress = (long) currentPlayerId << 32 | turn << 20 | countInCurrentRound << 12
+        | currentRound << 4 | stateIndex;
+    if (progress != recordedProgress) {
+      if (journaled) {
+        journal.progress(getGameId(), stateIndex, currentRound, currentPlayerId,
+            countInCurrentRound, turn);
+      }
+      if (watched) {
+        feed.progress(currentRound, currentPlayerId, turn, state.getClass().getSimpleName());
+      }
+      recordedProgress = progress;
+    }
+  }
+
+  /**
+   * Switch a player to the binary protocol. The reply is the last text line the player gets, every
+   * frame sent after it is a binary frame.
+   *
+   * @param playerId the player id
+   */
+  public void upgradeProtocol(int playerId) {
+    Player player = getPlayer(playerId);
+    if (player == null) {
+      return;
+    }
+    EventLog.get().outbound(tableId, playerId, BinaryFrame.HELLO_REPLY, 0);
+    Connection output = getOutput(player);
+    output.send(BinaryFrame.HELLO_REPLY);
+    output.setBinary(true);
+  }
+
+  /**
+   * Switch a player to the protocol version 2, whose turns are played with fused frames. The
+   * frames already sent are left as they are, so the switch takes effect from the next turn.
+   *
+   * @param playerId the player id
+   */
+  public void fuseTurns(int playerId) {
+    Player player = getPlayer(playerId);
+    if (player == null) {
+      return;
+    }
+    EventLog.get().outbound(tableId, playerId, ClientProtocol.HELLO_V2_REPLY, 0);
+    getOutput(player).send(ClientProtocol.HELLO_V2_REPLY);
+    player.setFusedTurns(true);
+  }
+
+  /**
+   * Gets the table id.
+   *
+   * @return the table id
+   */
+  public int getTableId() {
+    return tableId;
+  }
+
+  /**
+   * Gets the id of the current game, made of the epoch of the run, the table id and the number of
+   * the game at the table. The number of the games restarts with every run, the epoch does not.
+   *
+   * @return the game id
+   */
+  public long getGameId() {
+    return (long) epoch << 48 | getDiceSeed();
+  }
+
+  /**
+   * Gets the table id a game id was made of.
+   *
+   * @param gameId the game id
+   * @return the table id
+   */
+  public static int getTableId(long gameId) {
+    return (int) (gameId >>> 32) & TABLE_MASK;
+  }
+
+  /**
+   * Helper method that gets the id the dice of the current game are rolled from: the game id
+   * without the epoch, so the dice stream of a seeded game can be replayed in any run.
+   *
+   * @return the seed of the dice source
+   */
+  private long getDiceSeed() {
+    return (long) tableId << 32 | gameNumber;
   }
 
   /**
@@ -180,12 +589,29 @@ public class GameController {
   }
 
   /**
-   * Sets state.
+   * Sets state. Entering the game over puts the final score of every player on the leaderboard,
+   * once every round has been played. The players of a game ended by a quit are taken off the
+   * board instead, since their scores are not final.
    *
    * @param state the state
    */
   public void setState(ServerState state) {
+    if (state == gameOver && this.state != gameOver) {
+      boolean completed = isGameOver() && !cutShort;
+      for (Player player : players.values()) {
+        if (completed) {
+          Leaderboard.get().update(getGameId(), player.getPlayerId(), player.getTotalScore(), true);
+        } else {
+          Leaderboard.get().remove(getGameId(), player.getPlayerId());
+        }
+      }
+      if (feed.isWatched()) {
+        feed.over();
+      }
+    }
     this.state = state;
+    changed();
+    EventLog.get().state(tableId, state);
   }
 
   /**
@@ -193,24 +619,35 @@ public class GameController {
    */
   public void setUpLatch() {
     clearLatch();
-    latch = new CountDownLatch(curPlayerNumber);
+    latch = new CountDownLatch(curPlayerNumber.get());
   }
 
   /**
    * Reset the controller to start new game.
    */
   public void reset() {
+    if (journaled) {
+      journal.end(getGameId());
+      journaled = false;
+    }
     msgId = 1;
     currentRound = 1;
     countInCurrentRound = 1;
     currentPlayerId = 1;
-    lastPlayerId = 1;
     turn = 1;
+    cutShort = false;
     state = startingGame;
     unhandledMsg.clear();
     players.clear();
-    curPlayerNumber = 0;
+    resetSeats();
     clearLatch();
+    gameNumber++;
+    changed();
+    diceSource = diceSources.create(getDiceSeed());
+    if (feed.isWatched()) {
+      feed.reset(gameNumber);
+    }
+    seatFreed();
   }
 
   /**
@@ -239,22 +676,67 @@ public class GameController {
    * @return the current player number
    */
   public int getCurPlayerNumber() {
-    return curPlayerNumber;
+    return curPlayerNumber.get();
+  }
+
+  /**
+   * Reserve a seat for a new player. The seat is taken by the thread accepting the player, while
+   * the player only joins later on the thread of the game, so the reservation is kept until then.
+   *
+   * @return the player id of the new player
+   */
+  public synchronized int reserveSeat() {
+    reservedSeats++;
+    curPlayerNumber.incrementAndGet();
+    return lastPlayerId.getAndIncrement();
   }
 
   /**
-   * Add current player number.
+   * Helper method that hands back the seats of the game being reset, except the ones reserved by
+   * players who have not joined yet. Their ids are kept too, so the next player can not be given
+   * the same one.
    */
-  public void addCurPlayerNumber() {
-    curPlayerNumber++;
-    lastPlayerId++;
+  private synchronized void resetSeats() {
+    curPlayerNumber.set(reservedSeats);
+    if (reservedSeats == 0) {
+      lastPlayerId.set(1);
+    }
   }
 
   /**
-   * Decrease current player number.
+   * Helper method that turns the reservation of a joining player into a seat.
+   */
+  private synchronized void takeSeat() {
+    if (reservedSeats > 0) {
+      reservedSeats--;
+    }
+  }
+
+  /**
+   * Helper method that hands back the seat reserved by a player the table refuses.
+   */
+  private synchronized void releaseSeat() {
+    if (reservedSeats > 0) {
+      reservedSeats--;
+      curPlayerNumber.decrementAndGet();
+    }
+  }
+
+  /**
+   * Helper method that lets the players waiting for a seat know that one is free.
+   */
+  private void seatFreed() {
+    if (seatListener != null) {
+      seatListener.run();
+    }
+  }
+
+  /**
+   * Decrease current player number, and let the players waiting for a seat know that one is free.
    */
   public void decreaseCurPlayerNumber() {
-    curPlayerNumber--;
+    curPlayerNumber.decrementAndGet();
+    seatFreed();
   }
 
   /**
@@ -263,7 +745,7 @@ public class GameController {
    * @return the last player id
    */
   public int getLastPlayerId() {
-    return lastPlayerId;
+    return lastPlayerId.get();
   }
 
   /**
@@ -275,14 +757,53 @@ public class GameController {
     return latch;
   }
 
+  /**
+   * Seat a player who has reserved a seat, as long as the game has not started yet. The check and
+   * the seating are one step on the thread of the game, so the players already seated can not
+   * start the game in between. A player the table refuses gives the reserved seat back.
+   *
+   * @param playerId the player id
+   * @param output the output object
+   * @return true if the player is seated, false if the game has already started
+   */
+  public boolean join(int playerId, Connection output) {
+    if (state != startingGame) {
+      releaseSeat();
+      return false;
+    }
+    addPlayer(playerId, output);
+    return true;
+  }
+
+  /**
+   * Restart the starting game handshake, asking every player to acknowledge a new START_GAME.
+   * Nothing is sent once the game has started, so the ACKs the players still owe are never
+   * dropped.
+   */
+  public void restartGame() {
+    if (state != startingGame) {
+      return;
+    }
+    unhandledMsg.clear();
+    sendMessageAll("START_GAME", true);
+  }
+
   /**
    * Add new player.
    *
    * @param playerId the player id
    * @param output the output object
    */
-  public void addPlayer(int playerId, PrintWriter output) {
-    players.put(playerId, new Player(playerId, output));
+  public void addPlayer(int playerId, Connection output) {
+    takeSeat();
+    players.put(playerId, new Player(playerId, output, diceSource));
+    changed();
+    if (journaled) {
+      journal.join(getGameId(), playerId);
+    }
+    if (feed.isWatched()) {
+      feed.join(playerId);
+    }
   }
 
   /**
@@ -292,8 +813,9 @@ public class GameController {
    */
   public void removePlayer(int playerId) {
     players.remove(playerId);
+    changed();
     deleteMsg(playerId);
-    curPlayerNumber--;
+    curPlayerNumber.decrementAndGet();
     if (latch != null) {
       latch.countDown();
     }
@@ -305,15 +827,16 @@ public class GameController {
    * @return the current state string
    */
   public String getCurrentStateString() {
-    return "Round: " + currentRound + " Turn: PLAYER-" + currentPlayerId + " STATE: " + state;
+    return "Table: " + tableId + " Round: " + currentRound + " Turn: PLAYER-" + currentPlayerId
+        + " STATE: " + state;
   }
 
   /**
-   * Gets unhandled messages queue.
+   * Gets unhandled messages registry.
    *
-   * @return the unhandled messages queue
+   * @return the unhandled messages registry
    */
-  public Deque<String> getUnhandledMsg() {
+  public PendingResponses getUnhandledMsg() {
     return unhandledMsg;
   }
 
@@ -348,6 +871,15 @@ public class GameController {
     return players;
   }
 
+  /**
+   * Gets the number of the game played at this table, counting from 1.
+   *
+   * @return the game number
+   */
+  public int getGameNumber() {
+    return gameNumber;
+  }
+
   /**
    * Gets the turn number.
    *
@@ -376,9 +908,11 @@ public class GameController {
   }
 
   /**
-   * Sets to the last round.
+   * Sets to the last round. A game not in its last round yet is then cut short, so its scores are
+   * not final.
    */
   public void setLastRound() {
+    cutShort |= currentRound < maxRound;
     currentRound = maxRound;
   }
 
@@ -438,7 +972,7 @@ public class GameController {
   }
 
   /**
-   * Clear unhandled messages queue.
+   * Clear unhandled messages registry.
    */
   public void clearMsg() {
     unhandledMsg.clear();
@@ -469,14 +1003,7 @@ public class GameController {
    * @param responseRequired the response required
    */
   public void sendMessage(int playerId, String frame, String content, boolean responseRequired) {
-    if (responseRequired) {
-      String message = SERVER + " " + frame + " " + getMsgId() + " " + content + " <NEED RESPONSE>";
-      getPlayer(playerId).getOutput().println(message);
-      unhandledMsg.addLast(playerId + " " + message);
-    } else {
-      String message = SERVER + " " + frame + " " + getMsgId() + " " + content;
-      getPlayer(playerId).getOutput().println(message);
-    }
+    sendFrame(getPlayer(playerId), new EncodedFrame(frame, content, responseRequired));
   }
 
   /**
@@ -488,8 +1015,19 @@ public class GameController {
    * @param content the content
    */
   public void sendMessage(int playerId, String frame, int msgId, String content) {
-    String message = SERVER + " " + frame + " " + msgId + " " + content;
-    getPlayer(playerId).getOutput().println(message);
+    sendMessage(playerId, new EncodedFrame(frame, content, false), msgId);
+  }
+
+  /**
+   * Send an encoded frame to a player, as the response to the message with the given id.
+   *
+   * @param playerId the player id
+   * @param encoded the encoded frame
+   * @param msgId the msg id
+   */
+  public void sendMessage(int playerId, EncodedFrame encoded, int msgId) {
+    EventLog.get().outbound(tableId, playerId, encoded, msgId);
+    getOutput(getPlayer(playerId)).send(encoded, msgId);
   }
 
   /**
@@ -521,41 +1059,18 @@ public class GameController {
    * @param responseRequired the response required
    */
   public void sendMessage(int playerId, String frame, boolean responseRequired) {
-    if (responseRequired) {
-      String message = SERVER + " " + frame + " " + getMsgId() + " <NEED RESPONSE>";
-      System.out.println(message);
-      getPlayer(playerId).getOutput().println(message);
-      unhandledMsg.addLast(playerId + " " + message);
-    } else {
-      String message = SERVER + " " + frame + " " + getMsgId();
-      System.out.println(message);
-      getPlayer(playerId).getOutput().println(message);
-    }
+    sendFrame(getPlayer(playerId), new EncodedFrame(frame, null, responseRequired));
   }
 
   /**
-   * Send message to all players.
+   * Send message to all players. The frame is encoded once and shared by all the players.
    *
    * @param frame the frame
    * @param content the content
    * @param responseRequired the response required
    */
   public void sendMessageAll(String frame, String content, boolean responseRequired) {
-    if (responseRequired) {
-      for (Player player : players.values()) {
-        String message =
-            SERVER + " " + frame + " " + getMsgId() + " " + content + " <NEED RESPONSE>";
-        System.out.println(message);
-        player.getOutput().println(message);
-        unhandledMsg.addLast(player.getPlayerId() + " " + message);
-      }
-    } else {
-      for (Player player : players.values()) {
-        String message = SERVER + " " + frame + " " + getMsgId() + " " + content;
-        System.out.println(message);
-        player.getOutput().println(message);
-      }
-    }
+    sendMessageOther(0, frame, content, responseRequired);
   }
 
   /**
@@ -576,24 +1091,12 @@ public class GameController {
    * @param responseRequired the response required
    */
   public void sendMessageAll(String frame, boolean responseRequired) {
-    if (responseRequired) {
-      for (Player player : players.values()) {
-        String message = SERVER + " " + frame + " " + getMsgId() + " <NEED RESPONSE>";
-        System.out.println(message);
-        player.getOutput().println(message);
-        unhandledMsg.addLast(player.getPlayerId() + " " + message);
-      }
-    } else {
-      for (Player player : players.values()) {
-        String message = SERVER + " " + frame + " " + getMsgId();
-        System.out.println(message);
-        player.getOutput().println(message);
-      }
-    }
+    sendMessageAll(frame, null, responseRequired);
   }
 
   /**
-   * Send message to all players except for the given player.
+   * Send message to all players except for the given player. The frame is encoded once and shared
+   * by all the players.
    *
    * @param playerId the player id
    * @param frame the frame
@@ -602,23 +1105,10 @@ public class GameController {
    */
   public void sendMessageOther(int playerId, String frame, String content,
       boolean responseRequired) {
-    if (responseRequired) {
-      for (Player player : players.values()) {
-        if (player.getPlayerId() != playerId) {
-          String message =
-              SERVER + " " + frame + " " + getMsgId() + " " + content + " <NEED RESPONSE>";
-          System.out.println(message);
-          player.getOutput().println(message);
-          unhandledMsg.addLast(player.getPlayerId() + " " + message);
-        }
-      }
-    } else {
-      for (Player player : players.values()) {
-        if (player.getPlayerId() != playerId) {
-          String message = SERVER + " " + frame + " " + getMsgId() + " " + content;
-          System.out.println(message);
-          player.getOutput().println(message);
-        }
+    EncodedFrame encoded = new EncodedFrame(frame, content, responseRequired);
+    for (Player player : players.values()) {
+      if (player.getPlayerId() != playerId) {
+        sendFrame(player, encoded);
       }
     }
   }
@@ -630,29 +1120,180 @@ public class GameController {
    * @param content the content
    */
   public void sendMessageNoId(int playerId, String content) {
-    getPlayer(playerId).getOutput().println(content);
+    EventLog.get().outbound(tableId, playerId, content, 0);
+    Metrics.get().outbound(NO_ID_FRAME);
+    getOutput(getPlayer(playerId)).send(content);
+  }
+
+  /**
+   * Flush all the messages queued since the last flush. The messages sent while handling a request
+   * are only queued, and are written out together by this method once the request is handled.
+   */
+  public void flush() {
+    for (Connection output : pendingOutputs) {
+      output.flush();
+    }
+    pendingOutputs.clear();
+  }
+
+  /**
+   * Helper method that gets the connection of a player and remembers it to be flushed, so that
+   * messages queued to a player removed before the flush are still written out.
+   *
+   * @param player the player
+   * @return the connection
+   */
+  private Connection getOutput(Player player) {
+    Connection output = player.getOutput();
+    if (output.markPending()) {
+      pendingOutputs.add(output);
+    }
+    return output;
+  }
+
+  /**
+   * Helper method that sends an encoded frame to a player with a new message ID, and records it if
+   * a response is required.
+   *
+   * @param player the player
+   * @param encoded the encoded frame
+   */
+  private void sendFrame(Player player, EncodedFrame encoded) {
+    int id = getMsgId();
+    EventLog.get().outbound(tableId, player.getPlayerId(), encoded, id);
+    Metrics.get().outbound(encoded.getFrame());
+    getOutput(player).send(encoded, id);
+    if (encoded.isResponseRequired()) {
+      unhandledMsg.add(player.getPlayerId(), id, encoded);
+      armDeadline();
+    }
+  }
+
+  /**
+   * Helper method that asks the timer to check the deadlines when the oldest waiting message is
+   * due, unless a check is already due. One timeout per game is enough, since every check arms
+   * the next one.
+   */
+  private void armDeadline() {
+    if (timer == null || deadlineArmed || unhandledMsg.isEmpty()) {
+      return;
+    }
+    deadlineArmed = true;
+    long delay = unhandledMsg.getOldestSentAt() + responseTimeout - System.nanoTime();
+    timer.newTimeout(() -> post(this::checkDeadlines), Math.max(delay, 0), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Apply the timeout policy to every message left without a response past its deadline. The
+   * messages are collected first, since applying the policy changes the records.
+   *
+   * @throws IOException the io exception
+   */
+  private void checkDeadlines() throws IOException {
+    deadlineArmed = false;
+    int[] expired = unhandledMsg.getExpired(System.nanoTime() - responseTimeout);
+    for (int i = 0; i < expired.length; i += 2) {
+      int playerId = expired[i];
+      int id = expired[i + 1];
+      EncodedFrame frame = unhandledMsg.getFrame(playerId, id);
+      Player player = getPlayer(playerId);
+      if (frame == null || player == null) {
+        continue;
+      }
+      EventLog.get().system(tableId,
+          "PLAYER-" + playerId + " did not answer message " + id + " in time. " + timeoutPolicy);
+      applyTimeoutPolicy(player, id, frame);
+    }
+    armDeadline();
   }
 
   /**
-   * Match the player's message with unhandled messages queue.
+   * Helper method that applies the timeout policy to a message left without a response.
+   *
+   * @param player the player
+   * @param id the message id
+   * @param frame the frame
+   * @throws IOException the io exception
+   */
+  private void applyTimeoutPolicy(Player player, int id, EncodedFrame frame) throws IOException {
+    int playerId = player.getPlayerId();
+    String msgId = String.valueOf(id);
+    switch (timeoutPolicy) {
+      case ACK:
+        if (!isMove(frame.getFrame())) {
+          processRequest(playerId, new String[]{"ACK", msgId});
+          return;
+        }
+        break;
+      case PLAY:
+        processRequest(playerId, playFor(player, msgId, frame.getFrame()));
+        return;
+      case EVICT:
+        unhandledMsg.restart(playerId, id);
+        player.getOutput().close();
+        return;
+      default:
+        break;
+    }
+    EventLog.get().outbound(tableId, playerId, frame, id);
+    getOutput(player).send(frame, id);
+    unhandledMsg.restart(playerId, id);
+  }
+
+  /**
+   * Helper method that chooses the answer to a frame for a player who did not answer in time.
+   *
+   * @param player the player
+   * @param msgId the message id
+   * @param frame the frame
+   * @return the tokens of the answer
+   */
+  private static String[] playFor(Player player, String msgId, String frame) {
+    switch (frame) {
+      case "START_TURN_DICE":
+      case "CHOOSE_DICE":
+      case "INVALID_DICE_CHOICE":
+        return new String[]{"KEEP_DICE", msgId, "1", "1", "1", "1", "1"};
+      case "CHOOSE_SCORE":
+      case "SCORE_CHOICE_INVALID":
+        return new String[]{"SCORE_CHOICE", msgId, player.getBestFreeSlot()};
+      default:
+        return new String[]{"ACK", msgId};
+    }
+  }
+
+  /**
+   * Helper method that checks if a frame waits for a move rather than an ACK.
+   *
+   * @param frame the frame
+   * @return true or false
+   */
+  private static boolean isMove(String frame) {
+    switch (frame) {
+      case "START_TURN_DICE":
+      case "CHOOSE_DICE":
+      case "INVALID_DICE_CHOICE":
+      case "CHOOSE_SCORE":
+      case "SCORE_CHOICE_INVALID":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Match the player's message with unhandled messages registry.
    *
    * @param playerId the player id
    * @param message the message
    * @throws FrameMsgIdException the frame msg id exception
    */
-  public synchronized void matchMsg(int playerId, String[] message) throws FrameMsgIdException {
+  public void matchMsg(int playerId, String[] message) throws FrameMsgIdException {
     int msgId = Integer.parseInt(message[1]);
-    for (int i = 0; i < unhandledMsg.size(); i++) {
-      String[] historyMsg = unhandledMsg.getLast().split("\\s");
-      int historyTo = Integer.parseInt(historyMsg[0]);
-      int historyId = Integer.parseInt(historyMsg[3]);
-      if (playerId == historyTo && msgId == historyId) {
-        unhandledMsg.removeLast();
-        return;
-      }
-      unhandledMsg.addFirst(unhandledMsg.removeLast());
+    if (!unhandledMsg.remove(playerId, msgId)) {
+      throw new FrameMsgIdException("Message ID does not match.");
     }
-    throw new FrameMsgIdException("Message ID does not match.");
+    Metrics.get().acknowledged(System.nanoTime() - unhandledMsg.getLastSentAt());
   }
 
   /**
@@ -660,15 +1301,7 @@ public class GameController {
    *
    * @param playerId the player id
    */
-  public synchronized void deleteMsg(int playerId) {
-    for (int i = 0; i < unhandledMsg.size(); i++) {
-      String[] historyMsg = unhandledMsg.getLast().split("\\s");
-      int historyTo = Integer.parseInt(historyMsg[0]);
-      if (playerId == historyTo) {
-        unhandledMsg.removeLast();
-      } else {
-        unhandledMsg.addFirst(unhandledMsg.removeLast());
-      }
-    }
+  public void deleteMsg(int playerId) {
+    unhandledMsg.removeAll(playerId);
   }
 }
@@ -0,0 +1,90 @@
+package server.controller;
+
+import server.log.EventLog;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The type Game mailbox that serializes everything happening to one game. Any thread can post a
+ * task to the mailbox without taking a lock, while the tasks themselves always run one at a time
+ * on the executor of the game, so the state of a game is only ever changed by one thread at once.
+ * Many mailboxes can share the same executor. After each batch of tasks the mailbox runs a drained
+ * hook, which the game uses to flush everything the batch has sent.
+ */
+public class GameMailbox implements Runnable {
+
+  private static final int BATCH_SIZE = 64;
+  private Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+  private AtomicBoolean scheduled = new AtomicBoolean();
+  private Executor executor;
+  private Runnable drained;
+
+  /**
+   * Instantiates a new Game mailbox.
+   *
+   * @param executor the executor that drains the mailbox
+   * @param drained the hook run after each batch of tasks
+   */
+  public GameMailbox(Executor executor, Runnable drained) {
+    this.executor = executor;
+    this.drained = drained;
+  }
+
+  /**
+   * Post a task to the mailbox and schedule the mailbox if it is not scheduled yet.
+   *
+   * @param task the task
+   */
+  public void post(Task task) {
+    tasks.add(task);
+    schedule();
+  }
+
+  /**
+   * Run a batch of the posted tasks. The mailbox is scheduled again if tasks are left, so a busy
+   * game can not hold a shared worker thread forever.
+   */
+  @Override
+  public void run() {
+    Task task;
+    for (int i = 0; i < BATCH_SIZE && (task = tasks.poll()) != null; i++) {
+      try {
+        task.run();
+      } catch (IOException | RuntimeException ex) {
+        EventLog.get().error(0, ex);
+      }
+    }
+    drained.run();
+    scheduled.set(false);
+    if (!tasks.isEmpty()) {
+      schedule();
+    }
+  }
+
+  /**
+   * Helper method that hands the mailbox to the executor once.
+   */
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this);
+    }
+  }
+
+  /**
+   * The interface Task that represents one thing happening to a game.
+   */
+  @FunctionalInterface
+  public interface Task {
+
+    /**
+     * Run the task.
+     *
+     * @throws IOException the io exception
+     */
+    void run() throws IOException;
+  }
+}
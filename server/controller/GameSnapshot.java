@@ -0,0 +1,108 @@
+package server.controller;
+
+import server.game.Player;
+import server.network.EncodedFrame;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The type Game snapshot that holds what a GAME_STATE frame shows of a game at one version: the
+ * state and the score line of every player. A snapshot never changes once built. Its full frame is
+ * laid out as the GAME_STATE frame has always been, without any version, so clients that never ask
+ * for a version see no change. It is encoded once and sent as it is to every player asking for the
+ * game state until the game changes. Every line also remembers the version it last changed at, so a
+ * player naming the version it already knows is only sent what changed since, together with the
+ * current version. Naming version 0 asks for everything.
+ */
+public class GameSnapshot {
+
+  private static final String FRAME = "GAME_STATE";
+  private int version;
+  private String state;
+  private int stateChangedAt;
+  private int playersChangedAt;
+  private int[] playerIds;
+  private String[] lines;
+  private int[] changedAt;
+  private EncodedFrame frame;
+
+  /**
+   * Instantiates a new Game snapshot.
+   *
+   * @param previous the snapshot of an older version of the same game, or null if there is none
+   * @param version the version
+   * @param state the state
+   * @param players the players
+   */
+  public GameSnapshot(GameSnapshot previous, int version, String state,
+      Map<Integer, Player> players) {
+    this.version = version;
+    this.state = state;
+    playerIds = players.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    lines = new String[playerIds.length];
+    changedAt = new int[playerIds.length];
+    StringBuilder builder = new StringBuilder(state).append(' ');
+    for (int i = 0; i < playerIds.length; i++) {
+      lines[i] = "PLAYER-" + playerIds[i] + ": " + players.get(playerIds[i]).getScoresString();
+      builder.append(lines[i]);
+    }
+    if (playerIds.length > 0) {
+      builder.setLength(builder.length() - 1);
+    }
+    frame = new EncodedFrame(FRAME, builder.toString(), false);
+    if (previous == null) {
+      stateChangedAt = version;
+      playersChangedAt = version;
+      Arrays.fill(changedAt, version);
+      return;
+    }
+    stateChangedAt = state.equals(previous.state) ? previous.stateChangedAt : version;
+    playersChangedAt = Arrays.equals(playerIds, previous.playerIds) ? previous.playersChangedAt
+        : version;
+    for (int i = 0; i < playerIds.length; i++) {
+      int index = Arrays.binarySearch(previous.playerIds, playerIds[i]);
+      changedAt[i] = index >= 0 && lines[i].equals(previous.lines[index])
+          ? previous.changedAt[index] : version;
+    }
+  }
+
+  /**
+   * Gets the version.
+   *
+   * @return the version
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the GAME_STATE frame showing the whole game, in the layout of the plain reply.
+   *
+   * @return the encoded frame
+   */
+  public EncodedFrame getFrame() {
+    return frame;
+  }
+
+  /**
+   * Gets the content of a GAME_STATE frame showing only what changed since an older version. The
+   * state is shown if it changed, and so is every player whose line changed. Every player is shown
+   * if a player joined or left since.
+   *
+   * @param since the version known by the player
+   * @return the content
+   */
+  public String since(int since) {
+    StringBuilder builder = new StringBuilder("Since: ").append(since);
+    if (stateChangedAt > since) {
+      builder.append(' ').append(state);
+    }
+    for (int i = 0; i < lines.length; i++) {
+      if (changedAt[i] > since || playersChangedAt > since) {
+        builder.append(' ').append(lines[i]);
+      }
+    }
+    return builder.append(" Version: ").append(version).toString();
+  }
+}
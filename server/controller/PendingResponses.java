@@ -0,0 +1,311 @@
+package server.controller;
+
+import server.network.EncodedFrame;
+
+import java.util.Arrays;
+
+/**
+ * The type Pending responses that records which messages sent to the players are still waiting for
+ * their responses. The records are kept as plain message ids in one bucket per player, indexed by
+ * the player id, so matching a response, dropping the records of a player and checking if every
+ * message is acknowledged never parse a message or allocate once the buckets have grown. The time
+ * each message was sent is kept next to its id, so the round trip of a response can be measured
+ * and the messages left unanswered for too long can be found, together with the frame itself.
+ *
+ * <p>When the game does not wait for every acknowledgement, the records left behind are kept as
+ * trailing records. They still count towards the window of a player and still have deadlines, but
+ * the game is settled without them, and a response to a later message of the same player
+ * acknowledges them as well.
+ */
+public class PendingResponses {
+
+  private static final int INITIAL_PLAYERS = 8;
+  private static final int INITIAL_BUCKET_SIZE = 4;
+  private int[][] buckets = new int[INITIAL_PLAYERS][];
+  private long[][] sentAt = new long[INITIAL_PLAYERS][];
+  private EncodedFrame[][] frames = new EncodedFrame[INITIAL_PLAYERS][];
+  private boolean[][] trailing = new boolean[INITIAL_PLAYERS][];
+  private int[] sizes = new int[INITIAL_PLAYERS];
+  private int total;
+  private int trailingTotal;
+  private long lastSentAt;
+
+  /**
+   * Record a message sent to a player that needs a response.
+   *
+   * @param playerId the player id
+   * @param msgId the message id
+   */
+  public void add(int playerId, int msgId) {
+    add(playerId, msgId, null);
+  }
+
+  /**
+   * Record a frame sent to a player that needs a response.
+   *
+   * @param playerId the player id
+   * @param msgId the message id
+   * @param frame the frame
+   */
+  public void add(int playerId, int msgId, EncodedFrame frame) {
+    if (playerId >= buckets.length) {
+      int length = Math.max(buckets.length * 2, playerId + 1);
+      buckets = Arrays.copyOf(buckets, length);
+      sentAt = Arrays.copyOf(sentAt, length);
+      frames = Arrays.copyOf(frames, length);
+      trailing = Arrays.copyOf(trailing, length);
+      sizes = Arrays.copyOf(sizes, length);
+    }
+    int[] bucket = buckets[playerId];
+    if (bucket == null) {
+      bucket = new int[INITIAL_BUCKET_SIZE];
+      buckets[playerId] = bucket;
+      sentAt[playerId] = new long[INITIAL_BUCKET_SIZE];
+      frames[playerId] = new EncodedFrame[INITIAL_BUCKET_SIZE];
+      trailing[playerId] = new boolean[INITIAL_BUCKET_SIZE];
+    } else if (sizes[playerId] == bucket.length) {
+      bucket = Arrays.copyOf(bucket, bucket.length * 2);
+      buckets[playerId] = bucket;
+      sentAt[playerId] = Arrays.copyOf(sentAt[playerId], bucket.length);
+      frames[playerId] = Arrays.copyOf(frames[playerId], bucket.length);
+      trailing[playerId] = Arrays.copyOf(trailing[playerId], bucket.length);
+    }
+    sentAt[playerId][sizes[playerId]] = System.nanoTime();
+    trailing[playerId][sizes[playerId]] = false;
+    frames[playerId][sizes[playerId]] = frame;
+    bucket[sizes[playerId]++] = msgId;
+    total++;
+  }
+
+  /**
+   * Remove the record matching the response of a player, together with the trailing records of the
+   * player sent before it. The time the message was sent is then available from
+   * {@link #getLastSentAt()}.
+   *
+   * @param playerId the player id
+   * @param msgId the message id
+   * @return true if a record matched, false otherwise
+   */
+  public boolean remove(int playerId, int msgId) {
+    int index = indexOf(playerId, msgId);
+    if (index < 0) {
+      return false;
+    }
+    lastSentAt = sentAt[playerId][index];
+    removeAt(playerId, index);
+    int[] bucket = buckets[playerId];
+    for (int i = sizes[playerId] - 1; i >= 0 && trailingTotal > 0; i--) {
+      if (trailing[playerId][i] && bucket[i] < msgId) {
+        removeAt(playerId, i);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Keep every record as a trailing record, so the game can move on without its response.
+   */
+  public void trail() {
+    for (int playerId = 0; playerId < buckets.length; playerId++) {
+      for (int i = 0; i < sizes[playerId]; i++) {
+        if (!trailing[playerId][i]) {
+          trailing[playerId][i] = true;
+          trailingTotal++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Check if a record is a trailing record.
+   *
+   * @param playerId the player id
+   * @param msgId the message id
+   * @return true or false
+   */
+  public boolean isTrailing(int playerId, int msgId) {
+    int index = indexOf(playerId, msgId);
+    return index >= 0 && trailing[playerId][index];
+  }
+
+  /**
+   * Check if every player could be sent one more message needing a response without having more
+   * messages waiting than the window allows.
+   *
+   * @param window the number of messages a player may leave waiting
+   * @return true or false
+   */
+  public boolean hasRoom(int window) {
+    for (int size : sizes) {
+      if (size >= window) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the time the message of the last removed record was sent.
+   *
+   * @return the time, as given by System.nanoTime()
+   */
+  public long getLastSentAt() {
+    return lastSentAt;
+  }
+
+  /**
+   * Gets the frame of a record.
+   *
+   * @param playerId the player id
+   * @param msgId the message id
+   * @return the frame, or null if there is no such record or its frame is not known
+   */
+  public EncodedFrame getFrame(int playerId, int msgId) {
+    int index = indexOf(playerId, msgId);
+    return index < 0 ? null : frames[playerId][index];
+  }
+
+  /**
+   * Restart the wait of a record from now, such as when its message is sent again.
+   *
+   * @param playerId the player id
+   * @param msgId the message id
+   */
+  public void restart(int playerId, int msgId) {
+    int index = indexOf(playerId, msgId);
+    if (index >= 0) {
+      sentAt[playerId][index] = System.nanoTime();
+    }
+  }
+
+  /**
+   * Gets the time the oldest waiting message was sent.
+   *
+   * @return the time, as given by System.nanoTime(), or Long.MAX_VALUE if nothing is waiting
+   */
+  public long getOldestSentAt() {
+    long oldest = 0;
+    boolean found = false;
+    for (int playerId = 0; playerId < buckets.length; playerId++) {
+      for (int i = 0; i < sizes[playerId]; i++) {
+        if (!found || sentAt[playerId][i] - oldest < 0) {
+          oldest = sentAt[playerId][i];
+          found = true;
+        }
+      }
+    }
+    return found ? oldest : Long.MAX_VALUE;
+  }
+
+  /**
+   * Gets the records of the messages sent before the given time, as pairs of a player id and a
+   * message id.
+   *
+   * @param sentBefore the time, as given by System.nanoTime()
+   * @return the player id and message id of each record, one after the other
+   */
+  public int[] getExpired(long sentBefore) {
+    int[] expired = new int[total * 2];
+    int count = 0;
+    for (int playerId = 0; playerId < buckets.length; playerId++) {
+      for (int i = 0; i < sizes[playerId]; i++) {
+        if (sentAt[playerId][i] - sentBefore < 0) {
+          expired[count++] = playerId;
+          expired[count++] = buckets[playerId][i];
+        }
+      }
+    }
+    return Arrays.copyOf(expired, count);
+  }
+
+  /**
+   * Remove all the records of a player.
+   *
+   * @param playerId the player id
+   */
+  public void removeAll(int playerId) {
+    if (playerId >= 0 && playerId < buckets.length) {
+      for (int i = 0; i < sizes[playerId]; i++) {
+        trailingTotal -= trailing[playerId][i] ? 1 : 0;
+      }
+      total -= sizes[playerId];
+      sizes[playerId] = 0;
+      if (frames[playerId] != null) {
+        Arrays.fill(frames[playerId], null);
+      }
+    }
+  }
+
+  /**
+   * Check if every message has been responded.
+   *
+   * @return true or false
+   */
+  public boolean isEmpty() {
+    return total == 0;
+  }
+
+  /**
+   * Check if every message has been responded, the trailing records aside.
+   *
+   * @return true or false
+   */
+  public boolean isSettled() {
+    return total == trailingTotal;
+  }
+
+  /**
+   * Gets the number of messages waiting for their responses.
+   *
+   * @return the size
+   */
+  public int size() {
+    return total;
+  }
+
+  /**
+   * Remove all the records.
+   */
+  public void clear() {
+    for (int playerId = 0; playerId < buckets.length; playerId++) {
+      removeAll(playerId);
+    }
+  }
+
+  /**
+   * Helper method that removes a record by moving the last record of the bucket in its place.
+   *
+   * @param playerId the player id
+   * @param index the index in the bucket
+   */
+  private void removeAt(int playerId, int index) {
+    int last = sizes[playerId] - 1;
+    trailingTotal -= trailing[playerId][index] ? 1 : 0;
+    buckets[playerId][index] = buckets[playerId][last];
+    sentAt[playerId][index] = sentAt[playerId][last];
+    frames[playerId][index] = frames[playerId][last];
+    trailing[playerId][index] = trailing[playerId][last];
+    frames[playerId][last] = null;
+    sizes[playerId]--;
+    total--;
+  }
+
+  /**
+   * Helper method that finds a record in the bucket of a player.
+   *
+   * @param playerId the player id
+   * @param msgId the message id
+   * @return the index in the bucket, or -1 if there is no such record
+   */
+  private int indexOf(int playerId, int msgId) {
+    if (playerId < 0 || playerId >= buckets.length) {
+      return -1;
+    }
+    for (int i = 0; i < sizes[playerId]; i++) {
+      if (buckets[playerId][i] == msgId) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
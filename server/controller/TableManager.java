@@ -0,0 +1,312 @@
+package server.controller;
+
+import server.game.DiceSource;
+import server.journal.GameJournal;
+import server.log.EventLog;
+import server.state.StartingGame;
+import server.timer.HashedWheelTimer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The type Table manager that creates, pools and retires the GameController objects hosted by one
+ * server. Every table is an independent game, so a running game only occupies its own table and
+ * never stops new players from being seated at another one. The games are run by a small set of
+ * shared executors, and a table is always run by the same one. A player who finds every table busy
+ * waits in a queue, and is seated as soon as a table lets the manager know that a seat is free.
+ */
+public class TableManager {
+
+  private static final int MAX_IDLE_TABLES = 16;
+  private int maxPlayer;
+  private int maxRound;
+  private int maxTables;
+  private int nextTableId = 1;
+  private Executor[] executors;
+  private DiceSource.Factory diceSources = DiceSource.fast();
+  private HashedWheelTimer timer;
+  private long responseTimeout;
+  private TimeoutPolicy timeoutPolicy = TimeoutPolicy.RESEND;
+  private GameJournal journal;
+  private int ackWindow = 1;
+  private List<GameController> tables = new ArrayList<>();
+  private Deque<GameController> idleTables = new ArrayDeque<>();
+  private Deque<Joiner> waiting = new ArrayDeque<>();
+
+  /**
+   * Instantiates a new Table manager.
+   *
+   * @param maxPlayer the max number of players in a game
+   * @param maxRound the max round in a game
+   * @param maxTables the max number of tables running at the same time
+   */
+  public TableManager(int maxPlayer, int maxRound, int maxTables) {
+    this(maxPlayer, maxRound, maxTables, new Executor[]{
+        Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())});
+  }
+
+  /**
+   * Instantiates a new Table manager whose tables are spread over the given executors.
+   *
+   * @param maxPlayer the max number of players in a game
+   * @param maxRound the max round in a game
+   * @param maxTables the max number of tables running at the same time
+   * @param executors the executors that run the games
+   */
+  public TableManager(int maxPlayer, int maxRound, int maxTables, Executor[] executors) {
+    this.maxPlayer = maxPlayer;
+    this.maxRound = maxRound;
+    this.maxTables = maxTables;
+    this.executors = executors.clone();
+  }
+
+  /**
+   * Sets the factory of the dice source of each game, used by the tables opened from now on.
+   *
+   * @param diceSources the factory
+   */
+  public synchronized void setDiceSources(DiceSource.Factory diceSources) {
+    this.diceSources = diceSources;
+  }
+
+  /**
+   * Sets the deadline of the responses of the players and what happens when it passes, used by the
+   * tables opened from now on.
+   *
+   * @param timer the timer checking the deadlines, or null to wait forever
+   * @param timeout the time a player has to answer, in nanoseconds
+   * @param policy the timeout policy
+   */
+  public synchronized void setResponseTimeout(HashedWheelTimer timer, long timeout,
+      TimeoutPolicy policy) {
+    this.timer = timer;
+    this.responseTimeout = timeout;
+    this.timeoutPolicy = policy;
+  }
+
+  /**
+   * Sets the journal the games are written to, used by the tables opened from now on.
+   *
+   * @param journal the journal, or null to write nothing
+   */
+  public synchronized void setJournal(GameJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Sets the number of frames a player may leave unacknowledged, used by the tables opened from
+   * now on.
+   *
+   * @param ackWindow the window, 1 to wait for every ACK
+   */
+  public synchronized void setAckWindow(int ackWindow) {
+    this.ackWindow = ackWindow;
+  }
+
+  /**
+   * Find a seat for a new player. The seat is reserved right away if a table has one free, and the
+   * player is handed it on the calling thread. Otherwise the player waits, without holding the
+   * calling thread, until a table frees a seat, and is handed it on the thread of that table.
+   *
+   * @param joiner the new player
+   */
+  public void join(Joiner joiner) {
+    synchronized (this) {
+      waiting.addLast(joiner);
+    }
+    seatWaiting();
+  }
+
+  /**
+   * Find a table with a free seat for a new player. A table that is already filling up is
+   * preferred, then an empty one, then a new table is opened. Returns null if all tables are busy.
+   *
+   * @return the table controller, or null if no seat is free
+   */
+  public synchronized GameController findTable() {
+    GameController emptyTable = null;
+    Iterator<GameController> iterator = tables.iterator();
+    while (iterator.hasNext()) {
+      GameController table = iterator.next();
+      if (!isJoinable(table)) {
+        continue;
+      }
+      if (table.getCurPlayerNumber() > 0) {
+        return table;
+      }
+      if (emptyTable == null) {
+        emptyTable = table;
+      } else {
+        iterator.remove();
+        retireTable(table);
+      }
+    }
+    if (emptyTable != null) {
+      return emptyTable;
+    }
+    if (tables.size() < maxTables) {
+      return openTable();
+    }
+    return null;
+  }
+
+  /**
+   * Gets the number of tables currently hosted.
+   *
+   * @return the table number
+   */
+  public synchronized int getTableNumber() {
+    return tables.size();
+  }
+
+  /**
+   * Find an open table by its id.
+   *
+   * @param tableId the table id
+   * @return the table controller, or null if no open table has this id
+   */
+  public synchronized GameController getTable(int tableId) {
+    for (GameController table : tables) {
+      if (table.getTableId() == tableId) {
+        return table;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the number of games in progress, those that have left the starting game state.
+   *
+   * @return the game number
+   */
+  public synchronized long getActiveGames() {
+    long count = 0;
+    for (GameController table : tables) {
+      if (!(table.getState() instanceof StartingGame)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the number of players seated at all the tables.
+   *
+   * @return the player number
+   */
+  public synchronized long getActivePlayers() {
+    long count = 0;
+    for (GameController table : tables) {
+      count += table.getCurPlayerNumber();
+    }
+    return count;
+  }
+
+  /**
+   * Gets the max number of players in a game.
+   *
+   * @return the max player number
+   */
+  public int getMaxPlayer() {
+    return maxPlayer;
+  }
+
+  /**
+   * Gets the max number of tables.
+   *
+   * @return the max table number
+   */
+  public int getMaxTables() {
+    return maxTables;
+  }
+
+  /**
+   * Helper method that gives a seat to the players waiting for one, in the order they came, until
+   * no table has a free seat. The players are handed their seats outside the lock, since seating
+   * them means posting to the tables.
+   */
+  private void seatWaiting() {
+    while (true) {
+      Joiner joiner;
+      GameController table;
+      int playerId;
+      synchronized (this) {
+        if (waiting.isEmpty() || (table = findTable()) == null) {
+          return;
+        }
+        joiner = waiting.pollFirst();
+        playerId = table.reserveSeat();
+      }
+      joiner.seat(table, playerId);
+    }
+  }
+
+  /**
+   * Check if a new player can take a seat in the table.
+   *
+   * @param table the table
+   * @return true or false
+   */
+  private boolean isJoinable(GameController table) {
+    return table.getState() instanceof StartingGame
+        && table.getCurPlayerNumber() < table.getMaxPlayer();
+  }
+
+  /**
+   * Open a table, reusing a retired one if there is any.
+   *
+   * @return the table controller
+   */
+  private GameController openTable() {
+    GameController table = idleTables.pollFirst();
+    if (table == null) {
+      int tableId = nextTableId++;
+      table = new GameController(tableId, maxPlayer, maxRound,
+          executors[(tableId - 1) % executors.length], diceSources);
+      table.setResponseTimeout(timer, responseTimeout, timeoutPolicy);
+      table.setJournal(journal);
+      table.setAckWindow(ackWindow);
+      table.setSeatListener(this::seatWaiting);
+    }
+    tables.add(table);
+    EventLog.get().system(table.getTableId(),
+        "Table opened. Current table number is " + tables.size() + ".");
+    return table;
+  }
+
+  /**
+   * Retire an empty table into the idle pool so it can be reused later. An empty table has already
+   * been reset by the last player leaving it.
+   *
+   * @param table the table
+   */
+  private void retireTable(GameController table) {
+    if (idleTables.size() < MAX_IDLE_TABLES) {
+      idleTables.addLast(table);
+    }
+    EventLog.get().system(table.getTableId(),
+        "Table retired. Current table number is " + tables.size() + ".");
+  }
+
+  /**
+   * The interface Joiner that represents a new player waiting for a seat.
+   */
+  @FunctionalInterface
+  public interface Joiner {
+
+    /**
+     * Hand the player the seat reserved for them. The player only joins later on the thread of
+     * the table, which may refuse them if the game has started in between.
+     *
+     * @param table the table
+     * @param playerId the player id reserved for the player
+     */
+    void seat(GameController table, int playerId);
+  }
+}
@@ -0,0 +1,26 @@
+package server.controller;
+
+/**
+ * The enum Timeout policy that tells what a game does when a player has not answered a frame
+ * needing a response before its deadline.
+ */
+public enum TimeoutPolicy {
+  /**
+   * Send the frame again with the same message id and wait again.
+   */
+  RESEND,
+  /**
+   * Answer a frame that only needs an ACK for the player. A frame waiting for a move is sent
+   * again.
+   */
+  ACK,
+  /**
+   * Answer every frame for the player: keep all the dice, and take the free score slot with the
+   * highest score.
+   */
+  PLAY,
+  /**
+   * Close the connection of the player, who then quits the game as if it had disconnected.
+   */
+  EVICT
+}
@@ -0,0 +1,51 @@
+package server.game;
+
+/**
+ * The interface Dice source that gives the faces rolled in a game. Every game gets its own source
+ * from a factory, so a seeded factory can replay the same dice stream for the same game, while the
+ * default one is as fast as possible.
+ */
+public interface DiceSource {
+
+  /**
+   * Roll one die.
+   *
+   * @return the face, between 1 and 6
+   */
+  int nextFace();
+
+  /**
+   * Gets the factory of the default sources, which are not reproducible.
+   *
+   * @return the factory
+   */
+  static Factory fast() {
+    return gameId -> new FastDiceSource();
+  }
+
+  /**
+   * Gets a factory of seeded sources. The dice stream of a game only depends on the seed and the
+   * game id.
+   *
+   * @param seed the seed
+   * @return the factory
+   */
+  static Factory seeded(long seed) {
+    return gameId -> new SeededDiceSource(seed, gameId);
+  }
+
+  /**
+   * The interface Factory that creates the dice source of a game.
+   */
+  @FunctionalInterface
+  interface Factory {
+
+    /**
+     * Create the dice source of a game.
+     *
+     * @param gameId the game id
+     * @return the dice source
+     */
+    DiceSource create(long gameId);
+  }
+}
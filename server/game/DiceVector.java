@@ -0,0 +1,85 @@
+package server.game;
+
+/**
+ * The type Dice vector that holds the five dice of a player as primitives. The values are packed
+ * into one int, 3 bits per die in the same layout as the keys of the {@link ScoreTable}, so a roll
+ * is scored without being converted. A value of 0 means the die has not been thrown yet.
+ */
+public class DiceVector {
+
+  /**
+   * The number of dice.
+   */
+  public static final int DICE_NUMBER = ScoreTable.DICE_NUMBER;
+  private static final int BITS = 3;
+  private static final int MASK = (1 << BITS) - 1;
+  private int packed;
+
+  /**
+   * Roll all the dice.
+   *
+   * @param source the dice source of the game
+   */
+  public void roll(DiceSource source) {
+    for (int i = 0; i < DICE_NUMBER; i++) {
+      setValue(i, source.nextFace());
+    }
+  }
+
+  /**
+   * Roll the dice that are not kept.
+   *
+   * @param keeps one flag per die, 0 to roll the die again and 1 to keep it
+   * @param source the dice source of the game
+   */
+  public void roll(int[] keeps, DiceSource source) {
+    for (int i = 0; i < DICE_NUMBER; i++) {
+      if (keeps[i] == 0) {
+        setValue(i, source.nextFace());
+      }
+    }
+  }
+
+  /**
+   * Gets the value of a die.
+   *
+   * @param index the index of the die
+   * @return the value, or 0 if the die has not been thrown
+   */
+  public int getValue(int index) {
+    return packed >> BITS * index & MASK;
+  }
+
+  /**
+   * Sets the value of a die.
+   *
+   * @param index the index of the die
+   * @param value the value, between 1 and 6
+   */
+  public void setValue(int index, int value) {
+    packed = packed & ~(MASK << BITS * index) | value << BITS * index;
+  }
+
+  /**
+   * Gets the packed values, which are also the key of the roll in the score table.
+   *
+   * @return the key
+   */
+  public int getKey() {
+    return packed;
+  }
+
+  /**
+   * Gets the values of all the dice, as shown to the players.
+   *
+   * @return the values, each followed by a space
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(DICE_NUMBER * 2);
+    for (int i = 0; i < DICE_NUMBER; i++) {
+      builder.append(getValue(i)).append(' ');
+    }
+    return builder.toString();
+  }
+}
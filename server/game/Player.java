@@ -1,10 +1,8 @@
 package server.game;
 
 import server.game.ScoreCard.Pattern;
+import server.network.Connection;
 
-import java.io.PrintWriter;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -12,24 +10,35 @@ import java.util.Objects;
  */
 public class Player {
 
-  private static final int DICE_NUMBER = 5;
+  private static final int DICE_NUMBER = DiceVector.DICE_NUMBER;
   private int playerId;
-  private PrintWriter output;
+  private Connection output;
+  private DiceSource diceSource;
   private ScoreCard scoreCard = new ScoreCard();
-  private List<Dice> dices = new ArrayList<>(DICE_NUMBER);
+  private DiceVector dices = new DiceVector();
+  private boolean fusedTurns;
 
   /**
    * Construct the player.
    *
    * @param ide a player should have a unique id.
-   * @param output should have a print writer to show message.
+   * @param output should have a connection to show message.
    */
-  public Player(int ide, PrintWriter output) {
+  public Player(int ide, Connection output) {
+    this(ide, output, new FastDiceSource());
+  }
+
+  /**
+   * Construct the player rolling dice from the dice source of the game.
+   *
+   * @param ide a player should have a unique id.
+   * @param output should have a connection to show message.
+   * @param diceSource the dice source of the game.
+   */
+  public Player(int ide, Connection output, DiceSource diceSource) {
     this.playerId = ide;
     this.output = output;
-    for (int i = 0; i < DICE_NUMBER; i++) {
-      dices.add(new Dice());
-    }
+    this.diceSource = diceSource;
   }
 
   /**
@@ -46,16 +55,16 @@ public class Player {
    *
    * @return the output.
    */
-  public PrintWriter getOutput() {
+  public Connection getOutput() {
     return output;
   }
 
   /**
    * Getter for the player's dices.
    *
-   * @return a list of dices.
+   * @return the dices.
    */
-  public List<Dice> getDices() {
+  public DiceVector getDices() {
     return dices;
   }
 
@@ -63,16 +72,16 @@ public class Player {
    * Setter for the player's dices.
    * @param dices the dices
    */
-  public void setDices(List<Dice> dices) {
+  public void setDices(DiceVector dices) {
     this.dices = dices;
   }
 
   /**
    * Setter for score card.
    *
-   * @param dices a list of dices.
+   * @param dices the dices.
    */
-  public void setScoreCard(List<Dice> dices) {
+  public void setScoreCard(DiceVector dices) {
     this.scoreCard.calculatePossibleScores(dices);
   }
 
@@ -80,7 +89,8 @@ public class Player {
    * Throw the dice - initialization.
    */
   public void throwDices() {
-    throwDices(new int[DICE_NUMBER]);
+    dices.roll(diceSource);
+    scoreCard.calculatePossibleScores(dices);
   }
 
   /**
@@ -92,11 +102,7 @@ public class Player {
     if (indexes.length != DICE_NUMBER) {
       throw new IllegalArgumentException();
     }
-    for (int i = 0; i < DICE_NUMBER; i++) {
-      if (indexes[i] == 0) {
-        dices.get(i).throwDice();
-      }
-    }
+    dices.roll(indexes, diceSource);
     scoreCard.calculatePossibleScores(dices);
   }
 
@@ -107,7 +113,7 @@ public class Player {
    */
   public void chooseScoreSlot(String scoreName) {
     int slotId = Pattern.valueOf(scoreName).getIndex();
-    if (scoreCard.getScores()[slotId] == -1) {
+    if (scoreCard.getScore(slotId) == -1) {
       scoreCard.chooseScore(slotId);
     } else {
       throw new IllegalArgumentException("Target score slot is unavailable.");
@@ -120,11 +126,7 @@ public class Player {
    * @return a string with above info.
    */
   public String getScoresString() {
-    StringBuilder stringBuilder = new StringBuilder();
-    for (Pattern pattern : Pattern.values()) {
-      stringBuilder.append(pattern + ": " + scoreCard.getScores()[pattern.getIndex()] + " ");
-    }
-    return stringBuilder.append(getTotalScoreString()).toString();
+    return scoreCard.renderScores();
   }
 
   /**
@@ -136,19 +138,76 @@ public class Player {
     return "Total: " + scoreCard.getTotalScore();
   }
 
+  /**
+   * Get the scores of all the slots.
+   *
+   * @return the scores, -1 for a free slot
+   */
+  public int[] getScores() {
+    return scoreCard.getScores();
+  }
+
+  /**
+   * Check if the player plays the turns with the fused frames of the protocol version 2.
+   *
+   * @return true or false
+   */
+  public boolean isFusedTurns() {
+    return fusedTurns;
+  }
+
+  /**
+   * Sets if the player plays the turns with the fused frames of the protocol version 2.
+   *
+   * @param fusedTurns true or false
+   */
+  public void setFusedTurns(boolean fusedTurns) {
+    this.fusedTurns = fusedTurns;
+  }
+
+  /**
+   * Get the score of a slot.
+   *
+   * @param index the index of the slot
+   * @return the score, -1 for a free slot
+   */
+  public int getScore(int index) {
+    return scoreCard.getScore(index);
+  }
+
+  /**
+   * Get the total score.
+   *
+   * @return the score value
+   */
+  public int getTotalScore() {
+    return scoreCard.getTotalScore();
+  }
+
   /**
    * Show possible scores.
    *
    * @return a string with above info.
    */
   public String getPossibleScoresString() {
-    StringBuilder stringBuilder = new StringBuilder();
+    return scoreCard.renderPossibleScores();
+  }
+
+  /**
+   * Gets the free score slot with the highest possible score for the current dice.
+   *
+   * @return the name of the slot, or null if every slot is taken
+   */
+  public String getBestFreeSlot() {
+    Pattern best = null;
     for (Pattern pattern : Pattern.values()) {
-      stringBuilder.append(
-          pattern + ": " + (scoreCard.getScores()[pattern.getIndex()] == -1 ? scoreCard
-              .getPossibleScores()[pattern.getIndex()] : "UNAVAILABLE")).append(" ");
+      int index = pattern.getIndex();
+      if (scoreCard.getScore(index) == -1 && (best == null || scoreCard
+          .getPossibleScore(index) > scoreCard.getPossibleScore(best.getIndex()))) {
+        best = pattern;
+      }
     }
-    return stringBuilder.toString();
+    return best == null ? null : best.name();
   }
 
   /**
@@ -157,11 +216,7 @@ public class Player {
    * @return a string with above info.
    */
   public String showDices() {
-    StringBuilder stringBuilder = new StringBuilder();
-    for (Dice dice : dices) {
-      stringBuilder.append(dice.getValue() + " ");
-    }
-    return stringBuilder.toString();
+    return dices.toString();
   }
 
   @Override
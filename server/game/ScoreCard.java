@@ -1,19 +1,25 @@
 package server.game;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
- * Score card to store all score info.
+ * Score card to store all score info. The text shown to the players is rendered from one cached
+ * segment per slot: choosing a slot only renders that slot and the total again, and a roll only
+ * drops the segments of the free slots. The whole text is joined again only when it is asked for
+ * after a change, so rendering an unchanged score card costs nothing.
  */
 public class ScoreCard {
 
+  private static final Pattern[] PATTERNS = Pattern.values();
+  private static final String UNAVAILABLE = ": UNAVAILABLE ";
   private int[] scores;
   private int[] possibleScores;
+  private int totalScore;
+  private int possibleKey = -1;
+  private String[] scoreSegments = new String[13];
+  private String[] possibleSegments = new String[13];
+  private String scoresText;
+  private String possibleScoresText;
 
   /**
    * Initialize the scores and possible scores arrays.
@@ -22,6 +28,9 @@ public class ScoreCard {
     scores = new int[13];
     possibleScores = new int[13];
     Arrays.fill(scores, -1);
+    for (int i = 0; i < 13; i++) {
+      scoreSegments[i] = PATTERNS[i] + ": -1 ";
+    }
   }
 
   /**
@@ -29,195 +38,101 @@ public class ScoreCard {
    * @return the score value.
    */
   public int getTotalScore() {
-    int totalScore = 0;
-    for (int point : scores) {
-      if (point != -1) {
-        totalScore += point;
-      }
-    }
     return totalScore;
   }
 
   /**
-   * Getter for scores array.
-   * @return the score array.
+   * Get the score of a slot.
+   * @param index index of the slot.
+   * @return the score, -1 for a free slot.
    */
-  public int[] getScores() {
-    int[] temp = new int[13];
-    for (int i = 0; i < 13; i++) {
-      temp[i] = scores[i];
-    }
-    return temp;
+  public int getScore(int index) {
+    return scores[index];
   }
 
   /**
-   * Getter for possible scores array.
-   * @return the possible score array.
+   * Get the possible score of a slot for the current dice.
+   * @param index index of the slot.
+   * @return the possible score.
    */
-  public int[] getPossibleScores() {
-    int[] temp = new int[13];
-    for (int i = 0; i < 13; i++) {
-      temp[i] = possibleScores[i];
-    }
-    return temp;
+  public int getPossibleScore(int index) {
+    return possibleScores[index];
   }
 
   /**
-   * Calculate all possible situations.
-   * @param dices a list of 5 dices.
+   * Render the score of every slot followed by the total.
+   * @return the text.
    */
-  public void calculatePossibleScores(List<Dice> dices) {
-    for (int i = 0; i < scores.length; i++) {
-      possibleScores[i] = calculateScore(dices, i);
-    }
-  }
-
-  /**
-   * Calculate score for target situation.
-   * @param dices a list of 5 dices.
-   * @param index situation index.
-   * @return the score for target situation.
-   */
-  private int calculateScore(List<Dice> dices, int index) {
-    if (index >= 0 && index <= 5) {
-      return calculateUpper(dices, index);
-    } else if (index >= 6 && index <= 7) {
-      return calculateKind(dices);
-    } else if (index == 8) {
-      return calculateFh(dices);
-    } else if (index == 9) {
-      return calculateSs(dices);
-    } else if (index == 10) {
-      return calculateLs(dices);
-    } else if (index == 11) {
-      return calculateYahtzee(dices);
-    } else {
-      return calculateSum(dices);
-    }
-  }
-
-  /**
-   * Count the number of dices with target value.
-   * @param dices a list of 5 dices.
-   * @param index the target dice value.
-   * @return the count number.
-   */
-  private int countOf(List<Dice> dices, int index) {
-    int count = 0;
-    for (Dice dice : dices) {
-      if (dice.getValue() == index + 1) {
-        count++;
+  public String renderScores() {
+    if (scoresText == null) {
+      StringBuilder builder = new StringBuilder(256);
+      for (String segment : scoreSegments) {
+        builder.append(segment);
       }
+      scoresText = builder.append("Total: ").append(totalScore).toString();
     }
-    return count;
-  }
-
-  /**
-   * Calculate the upper section.
-   * @param dices a list of 5 dices.
-   * @param index dice value, should be 1-6.
-   * @return the score value.
-   */
-  private int calculateUpper(List<Dice> dices, int index) {
-    return countOf(dices, index) * (index + 1);
+    return scoresText;
   }
 
   /**
-   * Calculate for three kind case.
-   * @param dices a list of 5 dices.
-   * @return the score.
+   * Render the possible score of every free slot for the current dice, the other slots being
+   * shown as unavailable.
+   * @return the text.
    */
-  private int calculateKind(List<Dice> dices) {
-    for (int i = 1; i <= 6; i++) {
-      int count = countOf(dices, i);
-      if (count >= 3) {
-        return calculateSum(dices);
+  public String renderPossibleScores() {
+    if (possibleScoresText == null) {
+      StringBuilder builder = new StringBuilder(256);
+      for (int i = 0; i < 13; i++) {
+        if (possibleSegments[i] == null) {
+          possibleSegments[i] = PATTERNS[i] + ": " + possibleScores[i] + " ";
+        }
+        builder.append(possibleSegments[i]);
       }
+      possibleScoresText = builder.toString();
     }
-    return 0;
-  }
-
-  /**
-   * Sum all dices' value.
-   * @param dices a list of 5 dices.
-   * @return total value of all dices.
-   */
-  private int calculateSum(List<Dice> dices) {
-    int sum = 0;
-    for (Dice dice : dices) {
-      sum += dice.getValue();
-    }
-    return sum;
+    return possibleScoresText;
   }
 
   /**
-   * Calculate for full house.
-   * @param dices a list of 5 dices.
-   * @return score value.
+   * Getter for scores array.
+   * @return the score array.
    */
-  private int calculateFh(List<Dice> dices) {
-    Map<Integer, Integer> map = new HashMap<>();
-    int maxCount = 0;
-    for (Dice dice : dices) {
-      int count = map.getOrDefault(dice.getValue(), 0) + 1;
-      map.put(dice.getValue(), count);
-      maxCount = Math.max(maxCount, count);
-      if (map.size() > 2) {
-        return 0;
-      }
+  public int[] getScores() {
+    int[] temp = new int[13];
+    for (int i = 0; i < 13; i++) {
+      temp[i] = scores[i];
     }
-    return maxCount <= 3 ? 25 : 0;
+    return temp;
   }
 
   /**
-   * Calculate small straight.
-   * @param dices a list of 5 dices.
-   * @return score value.
+   * Getter for possible scores array.
+   * @return the possible score array.
    */
-  private int calculateSs(List<Dice> dices) {
-    List<Dice> list = new ArrayList<>(dices);
-    Collections.sort(list);
-    int count = 0;
-    for (int i = 0; i < list.size(); i++) {
-      if (i == 0) {
-        count++;
-      } else if (list.get(i).getValue() == list.get(i - 1).getValue() + 1) {
-        count++;
-      } else if (list.get(i).getValue() != list.get(i - 1).getValue()) {
-        return 0;
-      }
+  public int[] getPossibleScores() {
+    int[] temp = new int[13];
+    for (int i = 0; i < 13; i++) {
+      temp[i] = possibleScores[i];
     }
-    return count >= 4 ? 30 : 0;
+    return temp;
   }
 
   /**
-   * Calculate large straight.
-   * @param dices a list of 5 dices.
-   * @return score value.
+   * Calculate all possible situations by looking the roll up in the score table.
+   * @param dices the 5 dices.
    */
-  private int calculateLs(List<Dice> dices) {
-    List<Dice> list = new ArrayList<>(dices);
-    Collections.sort(list);
-    for (int i = 0; i < list.size(); i++) {
-      if (i != 0 && list.get(i).getValue() != list.get(i - 1).getValue() + 1) {
-        return 0;
-      }
+  public void calculatePossibleScores(DiceVector dices) {
+    if (dices.getKey() == possibleKey) {
+      return;
     }
-    return 40;
-  }
-
-  /**
-   * Calculate yahtzee case.
-   * @param dices a list of 5 dices.
-   * @return score value.
-   */
-  private int calculateYahtzee(List<Dice> dices) {
-    for (int i = 0; i < dices.size(); i++) {
-      if (i != 0 && dices.get(i).getValue() != dices.get(i - 1).getValue()) {
-        return 0;
+    possibleKey = dices.getKey();
+    ScoreTable.evaluate(possibleKey, possibleScores);
+    for (int i = 0; i < 13; i++) {
+      if (scores[i] == -1) {
+        possibleSegments[i] = null;
       }
     }
-    return 50;
+    possibleScoresText = null;
   }
 
   /**
@@ -226,6 +141,11 @@ public class ScoreCard {
    */
   public void chooseScore(int index) {
     scores[index] = possibleScores[index];
+    totalScore += scores[index];
+    scoreSegments[index] = PATTERNS[index] + ": " + scores[index] + " ";
+    possibleSegments[index] = PATTERNS[index] + UNAVAILABLE;
+    scoresText = null;
+    possibleScoresText = null;
   }
 
   /**
@@ -0,0 +1,269 @@
+package server.game;
+
+import java.util.Arrays;
+
+/**
+ * The type Score table that holds the score of every category for every possible roll. Five dice
+ * can only show 252 different multisets of values, so the scores of all of them are computed once
+ * when the class is loaded, and a roll is scored by packing its values into a key, looking up the
+ * multiset of the key and copying its row. Scoring a roll never allocates.
+ *
+ * <p>A key packs the five values in 3 bits each, the first die in the lowest bits, so the same
+ * multiset is reached from any order of the dice.
+ */
+public final class ScoreTable {
+
+  /**
+   * The number of dice in a roll.
+   */
+  public static final int DICE_NUMBER = 5;
+  /**
+   * The number of score categories.
+   */
+  public static final int CATEGORY_NUMBER = 13;
+  /**
+   * The number of different multisets of five dice.
+   */
+  public static final int MULTISET_NUMBER = 252;
+  private static final int BITS = 3;
+  private static final short[] MULTISETS = new short[1 << BITS * DICE_NUMBER];
+  private static final int[] SCORES = new int[MULTISET_NUMBER * CATEGORY_NUMBER];
+
+  static {
+    Arrays.fill(MULTISETS, (short) -1);
+    int[] values = new int[DICE_NUMBER];
+    int count = 0;
+    for (int key = 0; key < MULTISETS.length; key++) {
+      if (!unpack(key, values)) {
+        continue;
+      }
+      Arrays.sort(values);
+      int sortedKey = pack(values);
+      if (MULTISETS[sortedKey] == -1) {
+        MULTISETS[sortedKey] = (short) count;
+        for (int i = 0; i < CATEGORY_NUMBER; i++) {
+          SCORES[count * CATEGORY_NUMBER + i] = calculateScore(values, i);
+        }
+        count++;
+      }
+      MULTISETS[key] = MULTISETS[sortedKey];
+    }
+  }
+
+  /**
+   * Instantiates a new Score table.
+   */
+  private ScoreTable() {
+  }
+
+  /**
+   * Pack the values of five dice into a key.
+   *
+   * @param values the values, each between 1 and 6
+   * @return the key
+   */
+  public static int pack(int[] values) {
+    int key = 0;
+    for (int i = 0; i < DICE_NUMBER; i++) {
+      key |= values[i] << BITS * i;
+    }
+    return key;
+  }
+
+  /**
+   * Gets the multiset index of a key, the same for every order of the same values.
+   *
+   * @param key the key
+   * @return the multiset index, between 0 and 251
+   * @throws IllegalArgumentException if a value of the key is not between 1 and 6
+   */
+  public static int multisetOf(int key) {
+    int multiset = key >= 0 && key < MULTISETS.length ? MULTISETS[key] : -1;
+    if (multiset < 0) {
+      throw new IllegalArgumentException("Dice values must be between 1 and 6.");
+    }
+    return multiset;
+  }
+
+  /**
+   * Copy the scores of every category for a roll into the given array.
+   *
+   * @param key the key of the roll
+   * @param target the array, at least 13 long
+   * @throws IllegalArgumentException if a value of the key is not between 1 and 6
+   */
+  public static void evaluate(int key, int[] target) {
+    System.arraycopy(SCORES, multisetOf(key) * CATEGORY_NUMBER, target, 0, CATEGORY_NUMBER);
+  }
+
+  /**
+   * Gets the score of one category for a roll.
+   *
+   * @param key the key of the roll
+   * @param category the category index
+   * @return the score
+   * @throws IllegalArgumentException if a value of the key is not between 1 and 6
+   */
+  public static int getScore(int key, int category) {
+    return SCORES[multisetOf(key) * CATEGORY_NUMBER + category];
+  }
+
+  /**
+   * Helper method that unpacks a key into values.
+   *
+   * @param key the key
+   * @param values the array receiving the values
+   * @return true if every value is between 1 and 6, false otherwise
+   */
+  private static boolean unpack(int key, int[] values) {
+    for (int i = 0; i < DICE_NUMBER; i++) {
+      values[i] = key >> BITS * i & (1 << BITS) - 1;
+      if (values[i] < 1 || values[i] > 6) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Helper method that calculates the score for target situation. The rules below are the ones the
+   * score card has always used, and only run while the table is built.
+   *
+   * @param values the sorted values of five dice
+   * @param index situation index
+   * @return the score for target situation
+   */
+  private static int calculateScore(int[] values, int index) {
+    if (index >= 0 && index <= 5) {
+      return countOf(values, index) * (index + 1);
+    } else if (index >= 6 && index <= 7) {
+      return calculateKind(values);
+    } else if (index == 8) {
+      return calculateFh(values);
+    } else if (index == 9) {
+      return calculateSs(values);
+    } else if (index == 10) {
+      return calculateLs(values);
+    } else if (index == 11) {
+      return calculateYahtzee(values);
+    } else {
+      return calculateSum(values);
+    }
+  }
+
+  /**
+   * Helper method that counts the number of dices with target value.
+   *
+   * @param values the values of five dice
+   * @param index the target dice value minus one
+   * @return the count number
+   */
+  private static int countOf(int[] values, int index) {
+    int count = 0;
+    for (int value : values) {
+      if (value == index + 1) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Helper method that calculates the kind cases.
+   *
+   * @param values the values of five dice
+   * @return the score
+   */
+  private static int calculateKind(int[] values) {
+    for (int i = 1; i <= 6; i++) {
+      if (countOf(values, i) >= 3) {
+        return calculateSum(values);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Helper method that sums all dices' value.
+   *
+   * @param values the values of five dice
+   * @return total value of all dices
+   */
+  private static int calculateSum(int[] values) {
+    int sum = 0;
+    for (int value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  /**
+   * Helper method that calculates full house.
+   *
+   * @param values the sorted values of five dice
+   * @return score value
+   */
+  private static int calculateFh(int[] values) {
+    int distinct = 1;
+    int maxCount = 1;
+    int count = 1;
+    for (int i = 1; i < values.length; i++) {
+      if (values[i] == values[i - 1]) {
+        count++;
+      } else {
+        distinct++;
+        count = 1;
+      }
+      maxCount = Math.max(maxCount, count);
+    }
+    return distinct <= 2 && maxCount <= 3 ? 25 : 0;
+  }
+
+  /**
+   * Helper method that calculates small straight.
+   *
+   * @param values the sorted values of five dice
+   * @return score value
+   */
+  private static int calculateSs(int[] values) {
+    int count = 1;
+    for (int i = 1; i < values.length; i++) {
+      if (values[i] == values[i - 1] + 1) {
+        count++;
+      } else if (values[i] != values[i - 1]) {
+        return 0;
+      }
+    }
+    return count >= 4 ? 30 : 0;
+  }
+
+  /**
+   * Helper method that calculates large straight.
+   *
+   * @param values the sorted values of five dice
+   * @return score value
+   */
+  private static int calculateLs(int[] values) {
+    for (int i = 1; i < values.length; i++) {
+      if (values[i] != values[i - 1] + 1) {
+        return 0;
+      }
+    }
+    return 40;
+  }
+
+  /**
+   * Helper method that calculates yahtzee case.
+   *
+   * @param values the values of five dice
+   * @return score value
+   */
+  private static int calculateYahtzee(int[] values) {
+    for (int i = 1; i < values.length; i++) {
+      if (values[i] != values[i - 1]) {
+        return 0;
+      }
+    }
+    return 50;
+  }
+}
@@ -0,0 +1,41 @@
+package server.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * The type Seeded dice source that rolls a deterministic stream derived from a seed and a game id,
+ * so the same game sees the same dice in every run. A game is only ever run by one thread at a
+ * time, so the source needs no locking.
+ */
+public class SeededDiceSource implements DiceSource {
+
+  private SplittableRandom random;
+
+  /**
+   * Instantiates a new Seeded dice source.
+   *
+   * @param seed the seed
+   * @param gameId the game id
+   */
+  public SeededDiceSource(long seed, long gameId) {
+    this.random = new SplittableRandom(mix(seed ^ mix(gameId)));
+  }
+
+  @Override
+  public int nextFace() {
+    return random.nextInt(6) + 1;
+  }
+
+  /**
+   * Helper method that scrambles the bits of a value, so that close seeds and game ids still give
+   * unrelated streams.
+   *
+   * @param value the value
+   * @return the scrambled value
+   */
+  private static long mix(long value) {
+    value = (value ^ value >>> 30) * 0xBF58476D1CE4E5B9L;
+    value = (value ^ value >>> 27) * 0x94D049BB133111EBL;
+    return value ^ value >>> 31;
+  }
+}
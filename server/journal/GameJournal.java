@@ -0,0 +1,341 @@
+package server.journal;
+
+import server.log.EventLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The type Game journal that writes what happens in the games as compact binary records to an
+ * append-only journal, so the games in progress can be rebuilt after the server dies. The journal
+ * is a directory of fixed size segments, each mapped into memory: appending a record only copies a
+ * few dozen bytes into the mapping under a short lock, and a sync thread forces the written pages
+ * to disk every few milliseconds, so many records share one fsync. A record is only durable once
+ * it has been synced. When a segment is full the journal rolls to the next one and deletes the
+ * old segments no game in progress started in. The segments of an earlier run are deleted once
+ * they have been replayed.
+ *
+ * <p>A record is its body length, the CRC32 of the body and the body itself: the record type, the
+ * game id and the fields of the type. A zero length marks the end of the written part of a
+ * segment, and a record whose CRC does not match is a torn write.
+ */
+public class GameJournal {
+
+  /**
+   * The record of a game leaving the starting game state: max player, max round, the player ids.
+   */
+  public static final byte START = 1;
+  /**
+   * The record of a roll: player id and the packed dice.
+   */
+  public static final byte ROLL = 2;
+  /**
+   * The record of a score choice: player id and category index.
+   */
+  public static final byte SCORE = 3;
+  /**
+   * The record of the progress of a game: state index, round, current player id, count of players
+   * done in the round and turn.
+   */
+  public static final byte PROGRESS = 4;
+  /**
+   * The record of a player leaving a game: player id.
+   */
+  public static final byte LEAVE = 5;
+  /**
+   * The record of a game being reset once every player has left.
+   */
+  public static final byte END = 6;
+  /**
+   * The record of a player joining a game already started: player id.
+   */
+  public static final byte JOIN = 7;
+  /**
+   * The size of the head of a record, the body length and its CRC32.
+   */
+  public static final int HEAD_SIZE = 8;
+  private static final String SUFFIX = ".journal";
+  private static final int MAX_BODY_SIZE = 128;
+  private Path directory;
+  private int segmentSize;
+  private long segment;
+  private long epoch;
+  private FileChannel channel;
+  private volatile MappedByteBuffer mapped;
+  private ByteBuffer body = ByteBuffer.allocate(MAX_BODY_SIZE);
+  private CRC32 crc = new CRC32();
+  private Map<Long, Long> startSegments = new HashMap<>();
+  private volatile long written;
+  private long synced;
+  private Thread syncer;
+  private volatile boolean closed;
+
+  /**
+   * Instantiates a new Game journal that writes to a new segment after the existing ones and
+   * starts its sync thread.
+   *
+   * @param directory the directory of the segments
+   * @param segmentSize the size of a segment in bytes
+   * @param syncMillis the time between two syncs in milliseconds
+   * @throws IOException if the first segment can not be created
+   */
+  public GameJournal(Path directory, int segmentSize, long syncMillis) throws IOException {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    Files.createDirectories(directory);
+    long[] segments = listSegments(directory);
+    segment = segments.length == 0 ? 0 : segments[segments.length - 1];
+    openNextSegment();
+    epoch = segment;
+    syncer = new Thread(() -> syncLoop(syncMillis), "yahtzee-journal");
+    syncer.setDaemon(true);
+    syncer.start();
+  }
+
+  /**
+   * Gets the epoch of this run, the sequence number of its first segment. The segments are
+   * numbered after the ones left by the earlier runs, so every run of a journal has a new epoch.
+   *
+   * @return the epoch
+   */
+  public long getEpoch() {
+    return epoch;
+  }
+
+  /**
+   * Append the record of a game leaving the starting game state.
+   *
+   * @param gameId the game id
+   * @param maxPlayer the max number of players
+   * @param maxRound the max round
+   * @param playerIds the ids of the players
+   */
+  public synchronized void start(long gameId, int maxPlayer, int maxRound, int[] playerIds) {
+    begin(START, gameId).put((byte) maxPlayer).put((byte) maxRound).put((byte) playerIds.length);
+    for (int playerId : playerIds) {
+      body.putInt(playerId);
+    }
+    startSegments.put(gameId, segment);
+    commit();
+  }
+
+  /**
+   * Append the record of a roll.
+   *
+   * @param gameId the game id
+   * @param playerId the player id
+   * @param diceKey the packed dice
+   */
+  public synchronized void roll(long gameId, int playerId, int diceKey) {
+    begin(ROLL, gameId).putInt(playerId).putShort((short) diceKey);
+    commit();
+  }
+
+  /**
+   * Append the record of a score choice.
+   *
+   * @param gameId the game id
+   * @param playerId the player id
+   * @param category the category index
+   */
+  public synchronized void score(long gameId, int playerId, int category) {
+    begin(SCORE, gameId).putInt(playerId).put((byte) category);
+    commit();
+  }
+
+  /**
+   * Append the record of the progress of a game.
+   *
+   * @param gameId the game id
+   * @param state the state index
+   * @param round the round
+   * @param playerId the current player id
+   * @param count the count of players done in the round
+   * @param turn the turn
+   */
+  public synchronized void progress(long gameId, int state, int round, int playerId, int count,
+      int turn) {
+    begin(PROGRESS, gameId).put((byte) state).put((byte) round).putInt(playerId).put((byte) count)
+        .put((byte) turn);
+    commit();
+  }
+
+  /**
+   * Append the record of a player joining a game already started.
+   *
+   * @param gameId the game id
+   * @param playerId the player id
+   */
+  public synchronized void join(long gameId, int playerId) {
+    begin(JOIN, gameId).putInt(playerId);
+    commit();
+  }
+
+  /**
+   * Append the record of a player leaving a game.
+   *
+   * @param gameId the game id
+   * @param playerId the player id
+   */
+  public synchronized void leave(long gameId, int playerId) {
+    begin(LEAVE, gameId).putInt(playerId);
+    commit();
+  }
+
+  /**
+   * Append the record of a game being reset.
+   *
+   * @param gameId the game id
+   */
+  public synchronized void end(long gameId) {
+    begin(END, gameId);
+    startSegments.remove(gameId);
+    commit();
+  }
+
+  /**
+   * Sync what is left and stop the sync thread.
+   */
+  public void close() {
+    closed = true;
+    syncer.interrupt();
+    sync();
+  }
+
+  /**
+   * List the sequence numbers of the segments in a directory, in order.
+   *
+   * @param directory the directory
+   * @return the sequence numbers
+   * @throws IOException the io exception
+   */
+  public static long[] listSegments(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return new long[0];
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(file -> file.getFileName().toString())
+          .filter(name -> name.matches("\\d{16}" + SUFFIX.replace(".", "\\.")))
+          .mapToLong(name -> Long.parseLong(name.substring(0, 16))).sorted().toArray();
+    }
+  }
+
+  /**
+   * Gets the path of a segment.
+   *
+   * @param directory the directory
+   * @param segment the sequence number of the segment
+   * @return the path
+   */
+  public static Path segmentPath(Path directory, long segment) {
+    return directory.resolve(String.format("%016d%s", segment, SUFFIX));
+  }
+
+  /**
+   * Helper method that starts the body of a record.
+   *
+   * @param type the record type
+   * @param gameId the game id
+   * @return the body buffer
+   */
+  private ByteBuffer begin(byte type, long gameId) {
+    body.clear();
+    return body.put(type).putLong(gameId);
+  }
+
+  /**
+   * Helper method that copies the record into the current segment, rolling to the next segment
+   * if it does not fit. A write that fails is logged and the record is lost, the game goes on.
+   */
+  private void commit() {
+    int length = body.position();
+    crc.reset();
+    crc.update(body.array(), 0, length);
+    try {
+      if (mapped.remaining() < HEAD_SIZE + length + HEAD_SIZE) {
+        rollSegment();
+      }
+      MappedByteBuffer target = mapped;
+      int start = target.position();
+      target.position(start + HEAD_SIZE);
+      target.put(body.array(), 0, length);
+      target.putInt(start + 4, (int) crc.getValue());
+      target.putInt(start, length);
+      written++;
+    } catch (IOException ex) {
+      EventLog.get().error(0, ex);
+    }
+  }
+
+  /**
+   * Helper method that syncs the current segment and moves to the next one, then deletes the
+   * segments before the first one a game in progress started in.
+   *
+   * @throws IOException the io exception
+   */
+  private void rollSegment() throws IOException {
+    mapped.force();
+    channel.close();
+    openNextSegment();
+    long oldest = segment;
+    for (long start : startSegments.values()) {
+      oldest = Math.min(oldest, start);
+    }
+    for (long old : listSegments(directory)) {
+      if (old < oldest) {
+        Files.deleteIfExists(segmentPath(directory, old));
+      }
+    }
+  }
+
+  /**
+   * Helper method that creates and maps the next segment.
+   *
+   * @throws IOException the io exception
+   */
+  private void openNextSegment() throws IOException {
+    segment++;
+    channel = FileChannel.open(segmentPath(directory, segment), StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    mapped = channel.map(MapMode.READ_WRITE, 0, segmentSize);
+  }
+
+  /**
+   * Helper method that forces the written pages of the current segment to disk, if anything was
+   * written since the last sync.
+   */
+  private void sync() {
+    long count = written;
+    if (count == synced) {
+      return;
+    }
+    mapped.force();
+    synced = count;
+  }
+
+  /**
+   * Helper method that syncs the journal periodically until it is closed.
+   *
+   * @param syncMillis the time between two syncs in milliseconds
+   */
+  private void syncLoop(long syncMillis) {
+    while (!closed) {
+      try {
+        Thread.sleep(syncMillis);
+      } catch (InterruptedException ex) {
+        return;
+      }
+      sync();
+    }
+  }
+}
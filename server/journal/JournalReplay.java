@@ -0,0 +1,220 @@
+package server.journal;
+
+import server.controller.GameController;
+import server.game.DiceVector;
+import server.game.Player;
+import server.game.ScoreCard.Pattern;
+import server.network.MemoryConnection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The type Journal replay that rebuilds the games left in progress from a game journal. The
+ * segments are read in order and every record is applied to a game controller of its own, with
+ * the same players, dice, score cards and progress as when the record was written. A game reset
+ * before the end of the journal is dropped. Reading stops at the first torn record, since nothing
+ * after it can be trusted. The players of a rebuilt game are given closed connections, as their
+ * clients are gone with the old server.
+ */
+public class JournalReplay {
+
+  private Path directory;
+  private long[] segments;
+  private Map<Long, GameController> games = new LinkedHashMap<>();
+  private long records;
+  private boolean torn;
+
+  /**
+   * Replay the journal in a directory.
+   *
+   * @param directory the directory of the segments
+   * @return the replay
+   * @throws IOException if a segment can not be read
+   */
+  public static JournalReplay replay(Path directory) throws IOException {
+    JournalReplay replay = new JournalReplay();
+    replay.directory = directory;
+    replay.segments = GameJournal.listSegments(directory);
+    for (long segment : replay.segments) {
+      if (!replay.replaySegment(GameJournal.segmentPath(directory, segment))) {
+        break;
+      }
+    }
+    return replay;
+  }
+
+  /**
+   * Delete the replayed segments, once the games they had in progress have been reported, so the
+   * next run neither replays nor reports them again. The segments after a torn record are deleted
+   * too, since they can not be trusted either.
+   *
+   * @throws IOException if a segment can not be deleted
+   */
+  public void retire() throws IOException {
+    for (long segment : segments) {
+      Files.deleteIfExists(GameJournal.segmentPath(directory, segment));
+    }
+  }
+
+  /**
+   * Gets the games left in progress, by game id.
+   *
+   * @return the games
+   */
+  public Map<Long, GameController> getGames() {
+    return games;
+  }
+
+  /**
+   * Gets the number of records replayed.
+   *
+   * @return the number of records
+   */
+  public long getRecords() {
+    return records;
+  }
+
+  /**
+   * Check if the replay stopped at a torn record.
+   *
+   * @return true or false
+   */
+  public boolean isTorn() {
+    return torn;
+  }
+
+  /**
+   * Helper method that replays the records of a segment.
+   *
+   * @param file the segment
+   * @return true if the segment was read to its end, false if a torn record was found
+   * @throws IOException the io exception
+   */
+  private boolean replaySegment(Path file) throws IOException {
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
+    byte[] body = new byte[256];
+    CRC32 crc = new CRC32();
+    while (mapped.remaining() >= GameJournal.HEAD_SIZE) {
+      int length = mapped.getInt();
+      int checksum = mapped.getInt();
+      if (length == 0) {
+        return true;
+      }
+      if (length < 0 || length > body.length || length > mapped.remaining()) {
+        torn = true;
+        return false;
+      }
+      mapped.get(body, 0, length);
+      crc.reset();
+      crc.update(body, 0, length);
+      if ((int) crc.getValue() != checksum) {
+        torn = true;
+        return false;
+      }
+      apply(ByteBuffer.wrap(body, 0, length));
+      records++;
+    }
+    return true;
+  }
+
+  /**
+   * Helper method that applies a record to its game.
+   *
+   * @param body the body of the record
+   */
+  private void apply(ByteBuffer body) {
+    byte type = body.get();
+    long gameId = body.getLong();
+    if (type == GameJournal.START) {
+      start(gameId, body);
+      return;
+    }
+    GameController game = games.get(gameId);
+    if (game == null) {
+      return;
+    }
+    switch (type) {
+      case GameJournal.ROLL:
+        Player player = game.getPlayer(body.getInt());
+        DiceVector dices = new DiceVector();
+        int key = body.getShort();
+        for (int i = 0; i < DiceVector.DICE_NUMBER; i++) {
+          dices.setValue(i, key >> 3 * i & 7);
+        }
+        player.setDices(dices);
+        player.setScoreCard(dices);
+        break;
+      case GameJournal.SCORE:
+        int playerId = body.getInt();
+        int category = body.get();
+        for (Pattern pattern : Pattern.values()) {
+          if (pattern.getIndex() == category) {
+            game.getPlayer(playerId).chooseScoreSlot(pattern.name());
+          }
+        }
+        break;
+      case GameJournal.PROGRESS:
+        int stateIndex = body.get();
+        int round = body.get();
+        int currentPlayerId = body.getInt();
+        int count = body.get();
+        game.restore(stateIndex, round, currentPlayerId, count, body.get());
+        break;
+      case GameJournal.JOIN:
+        addPlayer(game, body.getInt());
+        break;
+      case GameJournal.LEAVE:
+        game.removePlayer(body.getInt());
+        break;
+      case GameJournal.END:
+        games.remove(gameId);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Helper method that creates a game from its start record.
+   *
+   * @param gameId the game id
+   * @param body the rest of the record
+   */
+  private void start(long gameId, ByteBuffer body) {
+    int maxPlayer = body.get();
+    int maxRound = body.get();
+    int count = body.get();
+    GameController game = new GameController(GameController.getTableId(gameId), maxPlayer,
+        maxRound, Runnable::run);
+    for (int i = 0; i < count; i++) {
+      addPlayer(game, body.getInt());
+    }
+    games.put(gameId, game);
+  }
+
+  /**
+   * Helper method that seats a player at a rebuilt game, on a closed connection.
+   *
+   * @param game the game
+   * @param playerId the player id
+   */
+  private void addPlayer(GameController game, int playerId) {
+    MemoryConnection closed = new MemoryConnection();
+    closed.close();
+    game.reserveSeat();
+    game.addPlayer(playerId, closed);
+  }
+}
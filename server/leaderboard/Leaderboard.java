@@ -0,0 +1,289 @@
+package server.leaderboard;
+
+import server.controller.GameController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The type Leaderboard that ranks the players of every game of the server by their total score.
+ * The entries are kept in a concurrent skip list ordered from the best score down, so the top of
+ * the board is read by walking its head. The number of entries with each score is also kept in a
+ * Fenwick tree of atomic counters, so the rank and the percentile of a player are summed over a
+ * handful of counters instead of counting the entries above it. Nothing is ever locked: the games
+ * update their own players while the queries read whatever is on the board at that moment. Once
+ * the board is full, the lowest entries are dropped.
+ */
+public class Leaderboard {
+
+  /**
+   * The highest score counted apart, higher scores are counted with it.
+   */
+  public static final int MAX_SCORE = 1023;
+  private static final int CAPACITY = 100000;
+  private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::getScore)
+      .reversed().thenComparingLong(Entry::getGameId).thenComparingInt(Entry::getPlayerId);
+  private static final Leaderboard INSTANCE = new Leaderboard(CAPACITY);
+  private int capacity;
+  private NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+  private Map<Entry, Entry> players = new ConcurrentHashMap<>();
+  private AtomicIntegerArray counts = new AtomicIntegerArray(MAX_SCORE + 2);
+  private AtomicInteger size = new AtomicInteger();
+
+  /**
+   * Instantiates a new Leaderboard.
+   *
+   * @param capacity the max number of entries
+   */
+  public Leaderboard(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Gets the leaderboard of the server.
+   *
+   * @return the leaderboard
+   */
+  public static Leaderboard get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Put the total score of a player on the board, in place of the one it had. The entry of a player
+   * is only ever updated by the game of the player, but the lowest entry may be dropped by the game
+   * of another player at the same time, so it is only taken out of the map if it is still the very
+   * entry of its player, and not a newer one equal to it.
+   *
+   * @param gameId the game id
+   * @param playerId the player id
+   * @param score the total score
+   * @param finished true if the game is over
+   */
+  public void update(long gameId, int playerId, int score, boolean finished) {
+    Entry entry = new Entry(gameId, playerId, score, finished);
+    Entry old = players.put(entry, entry);
+    if (old != null) {
+      unlink(old);
+    }
+    entries.add(entry);
+    count(score, 1);
+    if (size.incrementAndGet() > capacity) {
+      Entry lowest = entries.pollLast();
+      if (lowest != null) {
+        players.computeIfPresent(lowest, (key, current) -> current == lowest ? null : current);
+        count(lowest.score, -1);
+        size.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Take a player off the board, such as a player leaving before the end of the game.
+   *
+   * @param gameId the game id
+   * @param playerId the player id
+   */
+  public void remove(long gameId, int playerId) {
+    Entry old = players.remove(new Entry(gameId, playerId, 0, false));
+    if (old != null) {
+      unlink(old);
+    }
+  }
+
+  /**
+   * Gets the best entries of the board.
+   *
+   * @param count the max number of entries
+   * @return the entries, from the best score down
+   */
+  public List<Entry> getTop(int count) {
+    List<Entry> top = new ArrayList<>(Math.min(count, capacity));
+    Iterator<Entry> iterator = entries.iterator();
+    while (top.size() < count && iterator.hasNext()) {
+      top.add(iterator.next());
+    }
+    return top;
+  }
+
+  /**
+   * Gets the rank of a player, one more than the number of entries with a higher score.
+   *
+   * @param gameId the game id
+   * @param playerId the player id
+   * @return the rank, or 0 if the player is not on the board
+   */
+  public int getRank(long gameId, int playerId) {
+    Entry entry = players.get(new Entry(gameId, playerId, 0, false));
+    if (entry == null) {
+      return 0;
+    }
+    return countBelow(MAX_SCORE + 1) - countBelow(entry.score + 1) + 1;
+  }
+
+  /**
+   * Gets the percentile of a player, the share of the entries with a lower score.
+   *
+   * @param gameId the game id
+   * @param playerId the player id
+   * @return the percentile between 0 and 100, or -1 if the player is not on the board
+   */
+  public double getPercentile(long gameId, int playerId) {
+    Entry entry = players.get(new Entry(gameId, playerId, 0, false));
+    int total = countBelow(MAX_SCORE + 1);
+    if (entry == null || total == 0) {
+      return -1;
+    }
+    return 100.0 * countBelow(entry.score) / total;
+  }
+
+  /**
+   * Gets the number of entries on the board.
+   *
+   * @return the number of entries
+   */
+  public int getSize() {
+    return size.get();
+  }
+
+  /**
+   * Render the best entries of the board as plain text, one entry per line.
+   *
+   * @param count the max number of entries
+   * @return the text
+   */
+  public String render(int count) {
+    StringBuilder builder = new StringBuilder();
+    int rank = 0;
+    for (Entry entry : getTop(count)) {
+      builder.append(++rank).append(" TABLE-").append(GameController.getTableId(entry.getGameId()))
+          .append(" GAME-").append((int) entry.getGameId()).append(" PLAYER-")
+          .append(entry.getPlayerId()).append(' ').append(entry.getScore())
+          .append(entry.isFinished() ? " FINAL" : " PLAYING").append('\n');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Helper method that takes an entry off the skip list and the counters, unless it was dropped
+   * already.
+   *
+   * @param entry the entry
+   */
+  private void unlink(Entry entry) {
+    if (entries.remove(entry)) {
+      count(entry.score, -1);
+      size.decrementAndGet();
+    }
+  }
+
+  /**
+   * Helper method that adds to the number of entries with a score.
+   *
+   * @param score the score
+   * @param delta the number to add
+   */
+  private void count(int score, int delta) {
+    for (int i = Math.min(score, MAX_SCORE) + 1; i < counts.length(); i += i & -i) {
+      counts.addAndGet(i, delta);
+    }
+  }
+
+  /**
+   * Helper method that counts the entries with a score lower than the given one.
+   *
+   * @param score the score
+   * @return the number of entries
+   */
+  private int countBelow(int score) {
+    int count = 0;
+    for (int i = Math.min(score, MAX_SCORE + 1); i > 0; i -= i & -i) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * The type Entry that holds the total score of one player of one game. Two entries are equal
+   * when they belong to the same player of the same game, whatever their scores.
+   */
+  public static class Entry {
+
+    private long gameId;
+    private int playerId;
+    private int score;
+    private boolean finished;
+
+    /**
+     * Instantiates a new Entry.
+     *
+     * @param gameId the game id
+     * @param playerId the player id
+     * @param score the total score
+     * @param finished true if the game is over
+     */
+    Entry(long gameId, int playerId, int score, boolean finished) {
+      this.gameId = gameId;
+      this.playerId = playerId;
+      this.score = score;
+      this.finished = finished;
+    }
+
+    /**
+     * Gets the game id.
+     *
+     * @return the game id
+     */
+    public long getGameId() {
+      return gameId;
+    }
+
+    /**
+     * Gets the player id.
+     *
+     * @return the player id
+     */
+    public int getPlayerId() {
+      return playerId;
+    }
+
+    /**
+     * Gets the total score.
+     *
+     * @return the score
+     */
+    public int getScore() {
+      return score;
+    }
+
+    /**
+     * Check if the game of the entry is over.
+     *
+     * @return true or false
+     */
+    public boolean isFinished() {
+      return finished;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Entry)) {
+        return false;
+      }
+      Entry other = (Entry) obj;
+      return gameId == other.gameId && playerId == other.playerId;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(gameId) * 31 + playerId;
+    }
+  }
+}
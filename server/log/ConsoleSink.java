@@ -0,0 +1,73 @@
+package server.log;
+
+import static server.network.YahtzeeServer.CLIENT;
+import static server.network.YahtzeeServer.SERVER;
+import static server.network.YahtzeeServer.SYSTEM;
+
+import server.network.EncodedFrame;
+
+import java.io.PrintStream;
+import java.time.Instant;
+
+/**
+ * The type Console sink that prints every event as one line on the console.
+ */
+public class ConsoleSink implements EventSink {
+
+  private PrintStream output;
+  private StringBuilder builder = new StringBuilder();
+
+  /**
+   * Instantiates a new Console sink printing to the standard output.
+   */
+  public ConsoleSink() {
+    this(System.out);
+  }
+
+  /**
+   * Instantiates a new Console sink.
+   *
+   * @param output the print stream
+   */
+  public ConsoleSink(PrintStream output) {
+    this.output = output;
+  }
+
+  @Override
+  public void write(LogEvent event) {
+    builder.setLength(0);
+    builder.append(Instant.ofEpochMilli(event.getTime())).append(' ');
+    switch (event.getType()) {
+      case INBOUND:
+        builder.append(CLIENT);
+        break;
+      case OUTBOUND:
+        builder.append(SERVER);
+        break;
+      default:
+        builder.append(SYSTEM);
+        break;
+    }
+    builder.append(' ').append(event.getType());
+    if (event.getTableId() != 0) {
+      builder.append(" TABLE-").append(event.getTableId());
+    }
+    if (event.getPlayerId() != 0) {
+      builder.append(" PLAYER-").append(event.getPlayerId());
+    }
+    Object payload = event.getPayload();
+    if (payload instanceof EncodedFrame) {
+      builder.append(' ').append(((EncodedFrame) payload).toString(event.getMsgId()));
+    } else if (payload instanceof String[]) {
+      builder.append(' ').append(String.join(" ", (String[]) payload));
+    } else if (event.getType() == EventType.STATE) {
+      builder.append(' ').append(payload.getClass().getSimpleName());
+    } else if (payload != null) {
+      builder.append(' ').append(payload);
+    }
+    output.println(builder);
+    if (payload instanceof Throwable) {
+      ((Throwable) payload).printStackTrace(output);
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package server.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The type Event log that records what happens in the server without slowing the games down. The
+ * game threads only claim a slot of a fixed ring buffer and fill it in, and a single writer thread
+ * turns the events into text and hands them to the sink. If the writer falls behind and the ring
+ * is full, new events are dropped and counted instead of blocking the game.
+ */
+public class EventLog {
+
+  private static final int DEFAULT_CAPACITY = 8192;
+  private static final long IDLE_PARK_NANOS = 1_000_000L;
+  private static volatile EventLog instance = new EventLog(LogLevel.DEBUG, new ConsoleSink(),
+      DEFAULT_CAPACITY);
+  private LogLevel level;
+  private EventSink sink;
+  private LogEvent[] ring;
+  private int mask;
+  private AtomicLong claimed = new AtomicLong();
+  private volatile long written;
+  private AtomicLong dropped = new AtomicLong();
+  private Thread writer;
+  private volatile boolean closed;
+
+  /**
+   * Instantiates a new Event log and starts its writer thread.
+   *
+   * @param level the level
+   * @param sink the sink
+   * @param capacity the capacity of the ring, rounded up to a power of two
+   */
+  public EventLog(LogLevel level, EventSink sink, int capacity) {
+    this.level = level;
+    this.sink = sink;
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.ring = new LogEvent[size];
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      ring[i] = new LogEvent();
+    }
+    if (level != LogLevel.OFF) {
+      writer = new Thread(this::drain, "yahtzee-log");
+      writer.setDaemon(true);
+      writer.start();
+    }
+  }
+
+  /**
+   * Gets the event log of the server.
+   *
+   * @return the event log
+   */
+  public static EventLog get() {
+    return instance;
+  }
+
+  /**
+   * Replace the event log of the server.
+   *
+   * @param level the level
+   * @param sink the sink
+   */
+  public static void configure(LogLevel level, EventSink sink) {
+    EventLog old = instance;
+    instance = new EventLog(level, sink, DEFAULT_CAPACITY);
+    old.close();
+  }
+
+  /**
+   * Stop the writer thread once every event recorded so far is written.
+   */
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Check if the events of the given type are recorded.
+   *
+   * @param type the event type
+   * @return true or false
+   */
+  public boolean isEnabled(EventType type) {
+    return type.getLevel().compareTo(level) >= 0 && level != LogLevel.OFF;
+  }
+
+  /**
+   * Gets the number of events dropped because the ring was full.
+   *
+   * @return the dropped number
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Record a new connection.
+   *
+   * @param tableId the table id
+   * @param playerId the player id
+   * @param text the description of the connection
+   */
+  public void connection(int tableId, int playerId, String text) {
+    record(EventType.CONNECTION, tableId, playerId, 0, text);
+  }
+
+  /**
+   * Record a frame received from a player.
+   *
+   * @param tableId the table id
+   * @param playerId the player id
+   * @param message the message
+   */
+  public void inbound(int tableId, int playerId, String message) {
+    record(EventType.INBOUND, tableId, playerId, 0, message);
+  }
+
+  /**
+   * Record a frame received from a player as tokens, which are only joined by the writer thread.
+   *
+   * @param tableId the table id
+   * @param playerId the player id
+   * @param tokens the tokens of the message
+   */
+  public void inbound(int tableId, int playerId, String[] tokens) {
+    record(EventType.INBOUND, tableId, playerId, 0, tokens);
+  }
+
+  /**
+   * Record a frame sent to a player. The frame is only turned into text by the writer thread.
+   *
+   * @param tableId the table id
+   * @param playerId the player id
+   * @param frame the frame, either an encoded frame or a line of text
+   * @param msgId the message id
+   */
+  public void outbound(int tableId, int playerId, Object frame, int msgId) {
+    record(EventType.OUTBOUND, tableId, playerId, msgId, frame);
+  }
+
+  /**
+   * Record a state transition of a game.
+   *
+   * @param tableId the table id
+   * @param state the new state
+   */
+  public void state(int tableId, Object state) {
+    record(EventType.STATE, tableId, 0, 0, state);
+  }
+
+  /**
+   * Record a system message.
+   *
+   * @param tableId the table id, or 0 if the message does not belong to a table
+   * @param text the message
+   */
+  public void system(int tableId, String text) {
+    record(EventType.SYSTEM, tableId, 0, 0, text);
+  }
+
+  /**
+   * Record an unexpected error.
+   *
+   * @param tableId the table id, or 0 if the error does not belong to a table
+   * @param error the error
+   */
+  public void error(int tableId, Throwable error) {
+    record(EventType.ERROR, tableId, 0, 0, error);
+  }
+
+  /**
+   * Helper method that claims a slot of the ring and publishes the event in it.
+   *
+   * @param type the event type
+   * @param tableId the table id
+   * @param playerId the player id
+   * @param msgId the message id
+   * @param payload the payload
+   */
+  private void record(EventType type, int tableId, int playerId, int msgId, Object payload) {
+    if (!isEnabled(type)) {
+      return;
+    }
+    long sequence;
+    do {
+      sequence = claimed.get();
+      if (sequence - written >= ring.length) {
+        dropped.incrementAndGet();
+        return;
+      }
+    } while (!claimed.compareAndSet(sequence, sequence + 1));
+    ring[(int) sequence & mask].publish(sequence, type, tableId, playerId, msgId, payload);
+  }
+
+  /**
+   * Helper method run by the writer thread that hands the published events to the sink in order.
+   */
+  private void drain() {
+    long next = 0;
+    while (true) {
+      LogEvent event = ring[(int) next & mask];
+      if (event.getSequence() != next) {
+        if (closed && claimed.get() == next) {
+          return;
+        }
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+        continue;
+      }
+      try {
+        sink.write(event);
+      } catch (RuntimeException ex) {
+        ex.printStackTrace();
+      }
+      event.clear();
+      written = ++next;
+    }
+  }
+}
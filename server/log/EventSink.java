@@ -0,0 +1,15 @@
+package server.log;
+
+/**
+ * The interface Event sink that writes the events of the event log somewhere. It is only called by
+ * the writer thread of the log.
+ */
+public interface EventSink {
+
+  /**
+   * Write an event. The event is a reused slot and must not be kept.
+   *
+   * @param event the event
+   */
+  void write(LogEvent event);
+}
@@ -0,0 +1,28 @@
+package server.log;
+
+/**
+ * The enum Event type that tells what happened in the server, and the level it is logged at.
+ */
+public enum EventType {
+  CONNECTION(LogLevel.INFO), INBOUND(LogLevel.DEBUG), OUTBOUND(LogLevel.DEBUG), STATE(
+      LogLevel.DEBUG), SYSTEM(LogLevel.INFO), ERROR(LogLevel.WARN);
+  private LogLevel level;
+
+  /**
+   * Set the event type.
+   *
+   * @param level the level of the event type
+   */
+  EventType(LogLevel level) {
+    this.level = level;
+  }
+
+  /**
+   * Getter for the level of the event type.
+   *
+   * @return the level
+   */
+  public LogLevel getLevel() {
+    return level;
+  }
+}
@@ -0,0 +1,108 @@
+package server.log;
+
+/**
+ * The type Log event that represents one slot of the ring buffer of the event log. Slots are
+ * reused, so a sink must copy what it needs and must not keep the event after writing it. The
+ * payload is kept as it was given and only turned into text by the sink, off the game threads.
+ */
+public class LogEvent {
+
+  private volatile long sequence = -1;
+  private long time;
+  private EventType type;
+  private int tableId;
+  private int playerId;
+  private int msgId;
+  private Object payload;
+
+  /**
+   * Gets the sequence of the event published in this slot.
+   *
+   * @return the sequence
+   */
+  long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Fill the slot and publish it with the given sequence.
+   *
+   * @param sequence the sequence
+   * @param type the event type
+   * @param tableId the table id
+   * @param playerId the player id
+   * @param msgId the message id
+   * @param payload the payload
+   */
+  void publish(long sequence, EventType type, int tableId, int playerId, int msgId,
+      Object payload) {
+    this.time = System.currentTimeMillis();
+    this.type = type;
+    this.tableId = tableId;
+    this.playerId = playerId;
+    this.msgId = msgId;
+    this.payload = payload;
+    this.sequence = sequence;
+  }
+
+  /**
+   * Release the payload once the event is written.
+   */
+  void clear() {
+    payload = null;
+  }
+
+  /**
+   * Gets the time the event happened at, in milliseconds.
+   *
+   * @return the time
+   */
+  public long getTime() {
+    return time;
+  }
+
+  /**
+   * Gets the event type.
+   *
+   * @return the type
+   */
+  public EventType getType() {
+    return type;
+  }
+
+  /**
+   * Gets the table id, or 0 if the event does not belong to a table.
+   *
+   * @return the table id
+   */
+  public int getTableId() {
+    return tableId;
+  }
+
+  /**
+   * Gets the player id, or 0 if the event does not belong to a player.
+   *
+   * @return the player id
+   */
+  public int getPlayerId() {
+    return playerId;
+  }
+
+  /**
+   * Gets the message id of an outbound frame.
+   *
+   * @return the message id
+   */
+  public int getMsgId() {
+    return msgId;
+  }
+
+  /**
+   * Gets the payload.
+   *
+   * @return the payload
+   */
+  public Object getPayload() {
+    return payload;
+  }
+}
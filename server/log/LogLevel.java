@@ -0,0 +1,9 @@
+package server.log;
+
+/**
+ * The enum Log level. An event is recorded if its level is at least the level of the log, and
+ * nothing is recorded at the OFF level.
+ */
+public enum LogLevel {
+  DEBUG, INFO, WARN, OFF
+}
@@ -0,0 +1,100 @@
+package server.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Latency histogram that records latencies in nanoseconds without locking. Values are
+ * kept in buckets whose width doubles with every power of two but which are split into 16 equal
+ * sub-buckets, so any percentile is reported within about 6% of the real value from a nanosecond
+ * up to hours, in a fixed amount of memory.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BITS = 4;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int BUCKET_NUMBER = (64 - SUB_BITS) * SUB_COUNT;
+  private AtomicLongArray buckets = new AtomicLongArray(BUCKET_NUMBER);
+  private LongAdder sum = new LongAdder();
+
+  /**
+   * Record a latency.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    buckets.incrementAndGet(indexOf(value));
+    sum.add(value);
+  }
+
+  /**
+   * Gets the number of recorded latencies.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKET_NUMBER; i++) {
+      count += buckets.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Gets the sum of the recorded latencies.
+   *
+   * @return the sum in nanoseconds
+   */
+  public long getSum() {
+    return sum.sum();
+  }
+
+  /**
+   * Gets a percentile of the recorded latencies.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency in nanoseconds, or 0 if nothing is recorded
+   */
+  public long getPercentile(double percentile) {
+    long count = getCount();
+    long rank = (long) Math.ceil(count * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKET_NUMBER; i++) {
+      seen += buckets.get(i);
+      if (seen > 0 && seen >= rank) {
+        return upperBoundOf(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Helper method that gets the bucket of a value.
+   *
+   * @param value the value
+   * @return the bucket index
+   */
+  private static int indexOf(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    return shift * SUB_COUNT + (int) (value >>> shift);
+  }
+
+  /**
+   * Helper method that gets the highest value of a bucket.
+   *
+   * @param index the bucket index
+   * @return the value
+   */
+  private static long upperBoundOf(int index) {
+    if (index < SUB_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_COUNT - 1;
+    long sub = index % SUB_COUNT + SUB_COUNT;
+    return ((sub + 1) << shift) - 1;
+  }
+}
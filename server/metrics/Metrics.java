@@ -0,0 +1,229 @@
+package server.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The type Metrics that counts what happens in the server without locking. Frames are counted by
+ * name in lock-free adders, the time spent in the handlers of every server state and the round
+ * trip of every response are recorded in latency histograms, and gauges such as the active games
+ * are read from their owners only when the metrics are exported, through JMX or the scrape
+ * endpoint. Recording a metric never allocates once its counter or histogram exists.
+ */
+public class Metrics implements MetricsMXBean {
+
+  /**
+   * The name of the metrics bean.
+   */
+  public static final String OBJECT_NAME = "server.metrics:type=Metrics";
+  private static final String PREFIX = "yahtzee_";
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 1};
+  private static final Metrics INSTANCE = new Metrics();
+  private Map<String, LongAdder> inbound = new ConcurrentHashMap<>();
+  private Map<String, LongAdder> outbound = new ConcurrentHashMap<>();
+  private Map<Class<?>, Map<String, LatencyHistogram>> handlers = new ConcurrentHashMap<>();
+  private LatencyHistogram ackRoundTrip = new LatencyHistogram();
+  private Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the metrics of the server.
+   *
+   * @return the metrics
+   */
+  public static Metrics get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Register the metrics of the server as a JMX bean, if it is not registered yet.
+   *
+   * @throws JMException if the bean can not be registered
+   */
+  public static synchronized void registerMBean() throws JMException {
+    ObjectName name = new ObjectName(OBJECT_NAME);
+    if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+    }
+  }
+
+  /**
+   * Count a frame received from a player.
+   *
+   * @param frame the frame
+   */
+  public void inbound(String frame) {
+    counterOf(inbound, frame).increment();
+  }
+
+  /**
+   * Count a frame sent to a player.
+   *
+   * @param frame the frame
+   */
+  public void outbound(String frame) {
+    counterOf(outbound, frame).increment();
+  }
+
+  /**
+   * Record the time spent by a handler of a server state.
+   *
+   * @param state the class of the server state
+   * @param handler the name of the handler, the frame it handles
+   * @param nanos the time in nanoseconds
+   */
+  public void handled(Class<?> state, String handler, long nanos) {
+    Map<String, LatencyHistogram> histograms = handlers.get(state);
+    if (histograms == null) {
+      histograms = handlers.computeIfAbsent(state, key -> new ConcurrentHashMap<>());
+    }
+    LatencyHistogram histogram = histograms.get(handler);
+    if (histogram == null) {
+      histogram = histograms.computeIfAbsent(handler, key -> new LatencyHistogram());
+    }
+    histogram.record(nanos);
+  }
+
+  /**
+   * Record the time from sending a frame that needs a response to receiving its response.
+   *
+   * @param nanos the time in nanoseconds
+   */
+  public void acknowledged(long nanos) {
+    ackRoundTrip.record(nanos);
+  }
+
+  /**
+   * Set a gauge, read each time the metrics are exported. A gauge of the same name is replaced.
+   *
+   * @param name the name
+   * @param supplier the supplier of the value
+   */
+  public void setGauge(String name, LongSupplier supplier) {
+    gauges.put(name, supplier);
+  }
+
+  @Override
+  public Map<String, Long> getInboundFrames() {
+    return snapshot(inbound);
+  }
+
+  @Override
+  public Map<String, Long> getOutboundFrames() {
+    return snapshot(outbound);
+  }
+
+  @Override
+  public Map<String, Long> getGauges() {
+    Map<String, Long> values = new TreeMap<>();
+    gauges.forEach((name, supplier) -> values.put(name, supplier.getAsLong()));
+    return values;
+  }
+
+  @Override
+  public Map<String, Long> getLatencyPercentiles() {
+    Map<String, Long> values = new TreeMap<>();
+    putPercentiles(values, "ack_round_trip", ackRoundTrip);
+    handlers.forEach((state, histograms) -> histograms.forEach(
+        (handler, histogram) -> putPercentiles(values,
+            "handler." + state.getSimpleName() + "." + handler, histogram)));
+    return values;
+  }
+
+  @Override
+  public String scrape() {
+    StringBuilder builder = new StringBuilder();
+    appendCounters(builder, "frames_inbound_total", getInboundFrames());
+    appendCounters(builder, "frames_outbound_total", getOutboundFrames());
+    getGauges().forEach(
+        (name, value) -> builder.append(PREFIX).append(name).append(' ').append(value)
+            .append('\n'));
+    appendHistogram(builder, "ack_round_trip_seconds", "", ackRoundTrip);
+    Map<String, LatencyHistogram> sorted = new TreeMap<>();
+    handlers.forEach((state, histograms) -> histograms.forEach(
+        (handler, histogram) -> sorted.put(
+            "state=\"" + state.getSimpleName() + "\",handler=\"" + handler + "\"", histogram)));
+    sorted.forEach((labels, histogram) -> appendHistogram(builder, "state_handler_seconds",
+        labels, histogram));
+    return builder.toString();
+  }
+
+  /**
+   * Helper method that gets the counter of a name, creating it on first use.
+   *
+   * @param counters the counters
+   * @param name the name
+   * @return the counter
+   */
+  private static LongAdder counterOf(Map<String, LongAdder> counters, String name) {
+    LongAdder counter = counters.get(name);
+    return counter != null ? counter : counters.computeIfAbsent(name, key -> new LongAdder());
+  }
+
+  /**
+   * Helper method that copies the current values of counters.
+   *
+   * @param counters the counters
+   * @return the values, sorted by name
+   */
+  private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+    Map<String, Long> values = new TreeMap<>();
+    counters.forEach((name, counter) -> values.put(name, counter.sum()));
+    return values;
+  }
+
+  /**
+   * Helper method that adds the median, 99th percentile and max of a histogram to a map.
+   *
+   * @param values the map
+   * @param name the name of the histogram
+   * @param histogram the histogram
+   */
+  private static void putPercentiles(Map<String, Long> values, String name,
+      LatencyHistogram histogram) {
+    values.put(name + ".p50", histogram.getPercentile(50));
+    values.put(name + ".p99", histogram.getPercentile(99));
+    values.put(name + ".max", histogram.getPercentile(100));
+  }
+
+  /**
+   * Helper method that renders counters labelled by frame.
+   *
+   * @param builder the builder
+   * @param name the metric name
+   * @param values the values by frame
+   */
+  private static void appendCounters(StringBuilder builder, String name,
+      Map<String, Long> values) {
+    values.forEach((frame, value) -> builder.append(PREFIX).append(name).append("{frame=\"")
+        .append(frame).append("\"} ").append(value).append('\n'));
+  }
+
+  /**
+   * Helper method that renders a histogram as a summary of quantiles, count and sum in seconds.
+   *
+   * @param builder the builder
+   * @param name the metric name
+   * @param labels the labels of the histogram, or an empty string
+   * @param histogram the histogram
+   */
+  private static void appendHistogram(StringBuilder builder, String name, String labels,
+      LatencyHistogram histogram) {
+    String separator = labels.isEmpty() ? "" : ",";
+    for (double quantile : QUANTILES) {
+      builder.append(PREFIX).append(name).append('{').append(labels).append(separator)
+          .append("quantile=\"").append(quantile).append("\"} ")
+          .append(histogram.getPercentile(quantile * 100) / 1e9).append('\n');
+    }
+    String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+    builder.append(PREFIX).append(name).append("_count").append(suffix)
+        .append(histogram.getCount()).append('\n');
+    builder.append(PREFIX).append(name).append("_sum").append(suffix)
+        .append(histogram.getSum() / 1e9).append('\n');
+  }
+}
@@ -0,0 +1,87 @@
+package server.metrics;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import server.leaderboard.Leaderboard;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * The type Metrics endpoint that serves the metrics of the server as plain text over HTTP, at
+ * /metrics on the loopback address only, so a local scraper can collect them. The best entries of
+ * the leaderboard are served at /leaderboard, or as many as asked by ?top=N. Both are rendered on
+ * the endpoint's own thread and never touch a game.
+ */
+public class MetricsEndpoint {
+
+  private static final String PATH = "/metrics";
+  private static final String LEADERBOARD_PATH = "/leaderboard";
+  private static final String TOP_REGEX = "^top=[1-9]\\d{0,4}$";
+  private static final int TOP = 100;
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private HttpServer server;
+
+  /**
+   * Start serving the metrics on the given port.
+   *
+   * @param port the port
+   * @throws IOException if the port can not be bound
+   */
+  public MetricsEndpoint(int port) throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    server.createContext(PATH, this::handle);
+    server.createContext(LEADERBOARD_PATH, this::handleLeaderboard);
+    server.start();
+  }
+
+  /**
+   * Stop serving the metrics.
+   */
+  public void close() {
+    server.stop(0);
+  }
+
+  /**
+   * Helper method that answers a scrape.
+   *
+   * @param exchange the exchange
+   * @throws IOException the io exception
+   */
+  private void handle(HttpExchange exchange) throws IOException {
+    respond(exchange, Metrics.get().scrape());
+  }
+
+  /**
+   * Helper method that answers a query of the leaderboard.
+   *
+   * @param exchange the exchange
+   * @throws IOException the io exception
+   */
+  private void handleLeaderboard(HttpExchange exchange) throws IOException {
+    String query = exchange.getRequestURI().getQuery();
+    int top = query != null && query.matches(TOP_REGEX) ? Integer
+        .parseInt(query.substring(query.indexOf('=') + 1)) : TOP;
+    respond(exchange, Leaderboard.get().render(top));
+  }
+
+  /**
+   * Helper method that sends a plain text body.
+   *
+   * @param exchange the exchange
+   * @param text the text
+   * @throws IOException the io exception
+   */
+  private void respond(HttpExchange exchange, String text) throws IOException {
+    byte[] body = text.getBytes(UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(body);
+    }
+  }
+}
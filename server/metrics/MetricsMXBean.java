@@ -0,0 +1,45 @@
+package server.metrics;
+
+import java.util.Map;
+
+/**
+ * The interface Metrics MX bean that exposes the metrics of the server through JMX.
+ */
+public interface MetricsMXBean {
+
+  /**
+   * Gets the number of frames received from the players, by frame.
+   *
+   * @return the counts
+   */
+  Map<String, Long> getInboundFrames();
+
+  /**
+   * Gets the number of frames sent to the players, by frame.
+   *
+   * @return the counts
+   */
+  Map<String, Long> getOutboundFrames();
+
+  /**
+   * Gets the current values of the gauges, such as the active games and players.
+   *
+   * @return the values
+   */
+  Map<String, Long> getGauges();
+
+  /**
+   * Gets the median, 99th percentile and max of every latency histogram, in nanoseconds. A key
+   * names the histogram and the percentile, such as ack_round_trip.p99.
+   *
+   * @return the percentiles
+   */
+  Map<String, Long> getLatencyPercentiles();
+
+  /**
+   * Render every metric in the plain text format of the scrape endpoint.
+   *
+   * @return the text
+   */
+  String scrape();
+}
@@ -0,0 +1,134 @@
+package server.network;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The type Connection that represents the outbound side of the connection of one player. Sent
+ * messages are only queued: they are written out together when the connection is flushed, which
+ * the game controller does once all the messages caused by a request have been sent. A connection
+ * is only used by the thread running the game of the player, so the small scratch buffers used to
+ * encode message ids are never shared. Once the player has switched to the binary protocol, frames
+ * are sent as binary frames while plain lines of text are still sent as text.
+ */
+public abstract class Connection {
+
+  /**
+   * The number of bytes a player may be behind before the connection is closed.
+   */
+  protected static final int MAX_BACKLOG = 1 << 20;
+  private static final byte[] NEW_LINE = {'\n'};
+  /**
+   * The scratch buffer used to encode message ids.
+   */
+  protected byte[] digits = new byte[11];
+  /**
+   * The scratch buffer used to encode binary headers.
+   */
+  protected byte[] header = new byte[16];
+  private boolean pending;
+  private boolean binary;
+
+  /**
+   * Queue a line of text.
+   *
+   * @param line the line
+   */
+  public void send(String line) {
+    byte[] bytes = line.getBytes(UTF_8);
+    write(bytes, 0, bytes.length);
+    write(NEW_LINE, 0, 1);
+  }
+
+  /**
+   * Queue an encoded frame with the given message id.
+   *
+   * @param frame the encoded frame
+   * @param msgId the message id
+   */
+  public void send(EncodedFrame frame, int msgId) {
+    if (isBinary(frame)) {
+      write(header, 0, frame.encodeBinaryHeader(header, msgId));
+      write(frame.getBinaryBody(), 0, frame.getBinaryBody().length);
+      return;
+    }
+    write(frame.getHead(), 0, frame.getHead().length);
+    int offset = encodeDigits(msgId);
+    write(digits, offset, digits.length - offset);
+    write(frame.getTail(), 0, frame.getTail().length);
+  }
+
+  /**
+   * Switch the connection to the binary protocol or back to the text protocol.
+   *
+   * @param binary true to send binary frames
+   */
+  public void setBinary(boolean binary) {
+    this.binary = binary;
+  }
+
+  /**
+   * Check if a frame should be sent as a binary frame.
+   *
+   * @param frame the encoded frame
+   * @return true if the connection uses the binary protocol and the frame has a binary form
+   */
+  protected boolean isBinary(EncodedFrame frame) {
+    return binary && frame.getBinaryBody() != null;
+  }
+
+  /**
+   * Mark the connection as having queued messages.
+   *
+   * @return true if the connection was not marked yet
+   */
+  public boolean markPending() {
+    if (pending) {
+      return false;
+    }
+    pending = true;
+    return true;
+  }
+
+  /**
+   * Write all the queued messages to the player.
+   */
+  public void flush() {
+    pending = false;
+    flushWrites();
+  }
+
+  /**
+   * Queue bytes to the connection. The bytes may be changed by the caller once this method
+   * returns, so they must be copied or written out before.
+   *
+   * @param bytes the bytes
+   * @param offset the offset
+   * @param length the length
+   */
+  protected abstract void write(byte[] bytes, int offset, int length);
+
+  /**
+   * Write the queued bytes to the player.
+   */
+  protected abstract void flushWrites();
+
+  /**
+   * Close the connection.
+   */
+  public abstract void close();
+
+  /**
+   * Encode a non-negative number at the end of the scratch buffer.
+   *
+   * @param value the value
+   * @return the offset of the first digit
+   */
+  protected int encodeDigits(int value) {
+    int offset = digits.length;
+    do {
+      digits[--offset] = (byte) ('0' + value % 10);
+      value /= 10;
+    } while (value != 0);
+    return offset;
+  }
+}
@@ -0,0 +1,138 @@
+package server.network;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static server.network.YahtzeeServer.SERVER;
+
+import protocol.BinaryFrame;
+import protocol.FrameExceptions.FrameHeaderException;
+
+/**
+ * The type Encoded frame that holds a server frame encoded once into bytes, so the same frame can
+ * be written to any number of players. The frame is split around its message id: the head holds
+ * everything before the id and the tail everything after it, so only the id is written per player.
+ * The byte arrays are shared and must never be changed. The binary body of the frame is only
+ * transcoded the first time the frame is sent to a player using the binary protocol.
+ */
+public class EncodedFrame {
+
+  private static final String NEED_RESPONSE = " <NEED RESPONSE>";
+  private String frame;
+  private String content;
+  private boolean responseRequired;
+  private byte[] head;
+  private byte[] tail;
+  private boolean transcoded;
+  private int opcode;
+  private int flags;
+  private byte[] body;
+
+  /**
+   * Instantiates a new Encoded frame.
+   *
+   * @param frame the frame
+   * @param content the content, or null if the frame has no content
+   * @param responseRequired the response required
+   */
+  public EncodedFrame(String frame, String content, boolean responseRequired) {
+    this.frame = frame;
+    this.content = content;
+    this.responseRequired = responseRequired;
+    this.head = (SERVER + " " + frame + " ").getBytes(UTF_8);
+    this.tail = ((content == null ? "" : " " + content) + (responseRequired ? NEED_RESPONSE : "")
+        + "\n").getBytes(UTF_8);
+  }
+
+  /**
+   * Gets the frame's name.
+   *
+   * @return the frame
+   */
+  public String getFrame() {
+    return frame;
+  }
+
+  /**
+   * Gets the content.
+   *
+   * @return the content, or null if the frame has no content
+   */
+  public String getContent() {
+    return content;
+  }
+
+  /**
+   * Check if the frame needs a response.
+   *
+   * @return true or false
+   */
+  public boolean isResponseRequired() {
+    return responseRequired;
+  }
+
+  /**
+   * Gets the bytes before the message id.
+   *
+   * @return the head
+   */
+  public byte[] getHead() {
+    return head;
+  }
+
+  /**
+   * Gets the bytes after the message id, including the line separator.
+   *
+   * @return the tail
+   */
+  public byte[] getTail() {
+    return tail;
+  }
+
+  /**
+   * Gets the binary body of the frame, transcoding it the first time.
+   *
+   * @return the body, or null if the frame has no binary form
+   */
+  public byte[] getBinaryBody() {
+    if (!transcoded) {
+      transcoded = true;
+      try {
+        BinaryFrame binary = new BinaryFrame();
+        binary.set(frame, 0, content, responseRequired);
+        opcode = binary.getOpcode();
+        flags = binary.getFlags();
+        body = binary.encodeBody();
+      } catch (FrameHeaderException ex) {
+        body = null;
+      }
+    }
+    return body;
+  }
+
+  /**
+   * Encode the binary header of the frame sent with the given message id, once its body has been
+   * transcoded.
+   *
+   * @param target the array, at least 16 bytes long
+   * @param msgId the message id
+   * @return the length of the header
+   */
+  public int encodeBinaryHeader(byte[] target, int msgId) {
+    return BinaryFrame.encodeHeader(target, opcode, flags, msgId, body.length);
+  }
+
+  /**
+   * Gets the text of the frame sent with the given message id.
+   *
+   * @param msgId the message id
+   * @return the text of the frame
+   */
+  public String toString(int msgId) {
+    return SERVER + " " + frame + " " + msgId + (content == null ? "" : " " + content) + (
+        responseRequired ? NEED_RESPONSE : "");
+  }
+
+  @Override
+  public String toString() {
+    return "EncodedFrame{" + "frame='" + frame + '\'' + '}';
+  }
+}
@@ -0,0 +1,41 @@
+package server.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The type Gathering connection that writes to a blocking socket channel. The buffers queued by a
+ * batch of the game are written by gathering writes on the writer of the connection, so the shared
+ * bytes of an encoded frame are handed to the socket as they are instead of being copied into a
+ * per-connection buffer first, and the thread of the game never waits for the socket.
+ */
+public class GatheringConnection extends QueuedConnection {
+
+  private SocketChannel channel;
+
+  /**
+   * Instantiates a new Gathering connection.
+   *
+   * @param channel the blocking socket channel
+   */
+  public GatheringConnection(SocketChannel channel) {
+    this.channel = channel;
+  }
+
+  @Override
+  protected void writeOut(ByteBuffer[] batch, int batchCount) throws IOException {
+    int first = 0;
+    while (first < batchCount) {
+      channel.write(batch, first, batchCount - first);
+      while (first < batchCount && !batch[first].hasRemaining()) {
+        first++;
+      }
+    }
+  }
+
+  @Override
+  protected void closeSocket() throws IOException {
+    channel.close();
+  }
+}
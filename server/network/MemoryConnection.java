@@ -0,0 +1,122 @@
+package server.network;
+
+import java.util.Arrays;
+
+/**
+ * The type Memory connection that keeps the sent messages in memory instead of writing them to a
+ * socket, so whole games can be played inside one process. Frames are kept as they were sent,
+ * without being encoded, and only become visible to the reading side once the connection is
+ * flushed, the same as on a real connection. Like the game it belongs to, a memory connection is
+ * only used by one thread at a time.
+ */
+public class MemoryConnection extends Connection {
+
+  private EncodedFrame[] frames = new EncodedFrame[16];
+  private int[] msgIds = new int[16];
+  private String[] lines = new String[16];
+  private int queued;
+  private int visible;
+  private boolean closed;
+
+  @Override
+  public void send(String line) {
+    if (!closed) {
+      queue(null, 0, line);
+    }
+  }
+
+  @Override
+  public void send(EncodedFrame frame, int msgId) {
+    if (!closed) {
+      queue(frame, msgId, null);
+    }
+  }
+
+  @Override
+  protected void write(byte[] bytes, int offset, int length) {
+  }
+
+  @Override
+  protected void flushWrites() {
+    visible = queued;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Gets the number of messages flushed to the reading side and not consumed yet.
+   *
+   * @return the number of messages
+   */
+  public int getMessageCount() {
+    return visible;
+  }
+
+  /**
+   * Gets a flushed frame.
+   *
+   * @param index the index of the message
+   * @return the frame, or null if the message is a plain line of text
+   */
+  public EncodedFrame getFrame(int index) {
+    return frames[index];
+  }
+
+  /**
+   * Gets the message id a flushed frame was sent with.
+   *
+   * @param index the index of the message
+   * @return the message id
+   */
+  public int getMsgId(int index) {
+    return msgIds[index];
+  }
+
+  /**
+   * Gets a flushed plain line of text.
+   *
+   * @param index the index of the message
+   * @return the line, or null if the message is a frame
+   */
+  public String getLine(int index) {
+    return lines[index];
+  }
+
+  /**
+   * Consume the first flushed messages. Messages queued or flushed after them are kept.
+   *
+   * @param count the number of messages
+   */
+  public void consume(int count) {
+    int left = queued - count;
+    System.arraycopy(frames, count, frames, 0, left);
+    System.arraycopy(msgIds, count, msgIds, 0, left);
+    System.arraycopy(lines, count, lines, 0, left);
+    Arrays.fill(frames, left, queued, null);
+    Arrays.fill(lines, left, queued, null);
+    queued = left;
+    visible -= count;
+  }
+
+  /**
+   * Helper method that queues a message.
+   *
+   * @param frame the frame, or null for a line
+   * @param msgId the message id of the frame
+   * @param line the line, or null for a frame
+   */
+  private void queue(EncodedFrame frame, int msgId, String line) {
+    if (queued == frames.length) {
+      frames = Arrays.copyOf(frames, queued * 2);
+      msgIds = Arrays.copyOf(msgIds, queued * 2);
+      lines = Arrays.copyOf(lines, queued * 2);
+    }
+    frames[queued] = frame;
+    msgIds[queued] = msgId;
+    lines[queued] = line;
+    queued++;
+  }
+}
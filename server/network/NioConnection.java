@@ -0,0 +1,200 @@
+package server.network;
+
+import protocol.WireDecoder;
+import server.controller.GameController;
+import server.log.EventLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The type Nio connection that represents a non-blocking connection of one player. Inbound bytes
+ * are framed into text lines or binary frames by a reusable decoder and every complete message is
+ * handed to the controller.
+ * Outbound bytes are written straight to the channel and whatever the socket can not take at once
+ * is kept until the selector reports the channel writable again. Once a player is more than a
+ * megabyte behind, the connection is closed and the player quits the game. A connection is only
+ * ever touched by the event loop that owns it, which is also the executor of the table of the
+ * player.
+ */
+public class NioConnection {
+
+  private static final int READ_BUFFER_SIZE = 4096;
+  private int playerId;
+  private SocketChannel channel;
+  private GameController controller;
+  private SelectionKey key;
+  private ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+  private ByteBuffer writeBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+  private WireDecoder decoder = new WireDecoder();
+  private Connection output = new ChannelConnection();
+  private Runnable refused;
+  private boolean closed;
+
+  /**
+   * Instantiates a new Nio connection.
+   *
+   * @param playerId the player id
+   * @param channel the channel
+   * @param controller the controller
+   * @param refused the task run if the table refuses the player, which finds them another one
+   */
+  public NioConnection(int playerId, SocketChannel channel, GameController controller,
+      Runnable refused) {
+    this.playerId = playerId;
+    this.channel = channel;
+    this.controller = controller;
+    this.refused = refused;
+  }
+
+  /**
+   * Seat the player at the table, then register the channel to the selector. The player is only
+   * read once seated, and a table refusing the player leaves the channel unregistered and runs the
+   * refused task instead. Both steps run on the loop thread, which is also the thread of the table.
+   *
+   * @param selector the selector
+   * @throws IOException the io exception
+   */
+  public void register(Selector selector) throws IOException {
+    channel.configureBlocking(false);
+    controller.post(() -> {
+      if (!YahtzeeServer.joinGame(controller, playerId, output)) {
+        refused.run();
+        return;
+      }
+      try {
+        key = channel.register(selector, writeBuffer.position() == 0 ? SelectionKey.OP_READ
+            : SelectionKey.OP_READ | SelectionKey.OP_WRITE, this);
+      } catch (IOException ex) {
+        EventLog.get().error(controller.getTableId(), ex);
+        close();
+        return;
+      }
+      EventLog.get().connection(controller.getTableId(), playerId,
+          "New client connected: " + channel.socket().getInetAddress() + ": " + channel.socket()
+              .getPort());
+    });
+  }
+
+  /**
+   * Gets the id of the table of the player.
+   *
+   * @return the table id
+   */
+  public int getTableId() {
+    return controller.getTableId();
+  }
+
+  /**
+   * Read the available bytes and handle every complete message.
+   */
+  public void read() {
+    try {
+      int count;
+      while ((count = channel.read(readBuffer)) > 0) {
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+          if (decoder.feed(readBuffer.get())) {
+            handleMessage();
+          }
+        }
+        readBuffer.clear();
+      }
+      if (count < 0) {
+        close();
+      }
+    } catch (IOException ex) {
+      close();
+    }
+  }
+
+  /**
+   * Write the pending outbound bytes once the channel is writable.
+   */
+  public void write() {
+    try {
+      writeBuffer.flip();
+      channel.write(writeBuffer);
+      writeBuffer.compact();
+      if (writeBuffer.position() == 0) {
+        key.interestOps(SelectionKey.OP_READ);
+      }
+    } catch (IOException ex) {
+      close();
+    }
+  }
+
+  /**
+   * Close the connection and let the player quit the game.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (key != null) {
+      key.cancel();
+    }
+    try {
+      channel.close();
+    } catch (IOException ex) {
+      EventLog.get().error(controller.getTableId(), ex);
+    }
+    YahtzeeServer.quitGame(controller, playerId);
+  }
+
+  /**
+   * Helper method that hands the decoded message to the controller.
+   */
+  private void handleMessage() {
+    if (decoder.isBinary()) {
+      YahtzeeServer.handleFrame(controller, playerId, decoder);
+    } else {
+      YahtzeeServer.handleMessage(controller, playerId, decoder.getLine());
+    }
+  }
+
+  /**
+   * The type Channel connection that lets the controller write to the channel. Written bytes are
+   * gathered in the write buffer and sent by one write call when the connection is flushed,
+   * keeping what the socket can not take at once, up to the backlog a player may have.
+   */
+  private class ChannelConnection extends Connection {
+
+    @Override
+    protected void write(byte[] bytes, int offset, int length) {
+      if (closed) {
+        return;
+      }
+      if (writeBuffer.remaining() < length) {
+        if (writeBuffer.position() + length > MAX_BACKLOG) {
+          NioConnection.this.close();
+          return;
+        }
+        ByteBuffer buffer = ByteBuffer
+            .allocate(Math.max(writeBuffer.capacity() * 2, writeBuffer.position() + length));
+        writeBuffer.flip();
+        writeBuffer = buffer.put(writeBuffer);
+      }
+      writeBuffer.put(bytes, offset, length);
+    }
+
+    @Override
+    protected void flushWrites() {
+      if (!closed && key != null && (key.interestOps() & SelectionKey.OP_WRITE) == 0) {
+        NioConnection.this.write();
+        if (writeBuffer.position() != 0) {
+          key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+      }
+    }
+
+    @Override
+    public void close() {
+      NioConnection.this.close();
+    }
+  }
+}
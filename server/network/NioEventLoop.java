@@ -0,0 +1,105 @@
+package server.network;
+
+import server.log.EventLog;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * The type Nio event loop. One I/O thread owns a selector and serves every connection registered
+ * to it. The loop is also the executor of the tables whose players it serves, so the mailbox of a
+ * table is drained on the same thread that owns the connections of its players. An error thrown by
+ * a connection or a task is logged and only closes that connection, since the loop thread serves
+ * every other player of the loop too.
+ */
+public class NioEventLoop implements Runnable, Executor {
+
+  private Selector selector;
+  private Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Instantiates a new Nio event loop.
+   *
+   * @throws IOException the io exception
+   */
+  public NioEventLoop() throws IOException {
+    selector = Selector.open();
+  }
+
+  /**
+   * Register a new connection to this loop. The registration itself is done by the loop thread.
+   *
+   * @param connection the connection
+   */
+  public void register(NioConnection connection) {
+    execute(() -> {
+      try {
+        connection.register(selector);
+      } catch (IOException | RuntimeException ex) {
+        EventLog.get().error(connection.getTableId(), ex);
+        connection.close();
+      }
+    });
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    tasks.add(task);
+    selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      try {
+        if (tasks.isEmpty()) {
+          selector.select();
+        } else {
+          selector.selectNow();
+        }
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          SelectionKey key = iterator.next();
+          iterator.remove();
+          serve((NioConnection) key.attachment(), key);
+        }
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+          try {
+            task.run();
+          } catch (RuntimeException ex) {
+            EventLog.get().error(0, ex);
+          }
+        }
+      } catch (IOException ex) {
+        EventLog.get().error(0, ex);
+      }
+    }
+  }
+
+  /**
+   * Helper method that writes and reads a connection whose channel is ready. A connection failing
+   * for any other reason than its socket is closed alone, so the loop goes on serving the others.
+   *
+   * @param connection the connection
+   * @param key the selection key of the connection
+   */
+  private void serve(NioConnection connection, SelectionKey key) {
+    try {
+      if (key.isValid() && key.isWritable()) {
+        connection.write();
+      }
+      if (key.isValid() && key.isReadable()) {
+        connection.read();
+      }
+    } catch (RuntimeException ex) {
+      EventLog.get().error(connection.getTableId(), ex);
+      connection.close();
+    }
+  }
+}
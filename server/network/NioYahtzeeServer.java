@@ -0,0 +1,147 @@
+package server.network;
+
+import static server.network.YahtzeeServer.SYSTEM;
+
+import server.controller.TableManager;
+import server.controller.TimeoutPolicy;
+import server.game.DiceSource;
+import server.journal.GameJournal;
+import server.leaderboard.Leaderboard;
+import server.metrics.Metrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Nio yahtzee server that manages the network connection of the Server by a small fixed
+ * number of selector based I/O threads instead of one thread per client.
+ */
+public class NioYahtzeeServer {
+
+  private int port;
+  private int maxRound;
+  private int maxPlayer;
+  private int maxTables;
+  private TableManager tableManager;
+  private NioEventLoop[] loops;
+  private DiceSource.Factory diceSources = DiceSource.fast();
+  private long responseTimeout;
+  private TimeoutPolicy timeoutPolicy;
+  private GameJournal journal;
+  private int spectatorPort;
+  private int ackWindow = 1;
+
+  /**
+   * Instantiates a new Nio yahtzee server.
+   *
+   * @param port the port
+   * @param maxRound the max round
+   * @param maxPlayer the max player
+   * @param maxTables the max number of tables
+   * @param ioThreads the number of I/O threads
+   */
+  public NioYahtzeeServer(int port, int maxRound, int maxPlayer, int maxTables, int ioThreads) {
+    this.port = port;
+    this.maxRound = maxRound;
+    this.maxPlayer = maxPlayer;
+    this.maxTables = maxTables;
+    this.loops = new NioEventLoop[ioThreads];
+  }
+
+  /**
+   * Sets the factory of the dice source of each game.
+   *
+   * @param diceSources the factory
+   */
+  public void setDiceSources(DiceSource.Factory diceSources) {
+    this.diceSources = diceSources;
+  }
+
+  /**
+   * Sets the time the players have to answer a frame needing a response, and what happens when
+   * they do not. The deadlines of all the games are checked by one timer.
+   *
+   * @param seconds the time in seconds
+   * @param policy the timeout policy
+   */
+  public void setResponseTimeout(int seconds, TimeoutPolicy policy) {
+    this.responseTimeout = TimeUnit.SECONDS.toNanos(seconds);
+    this.timeoutPolicy = policy;
+  }
+
+  /**
+   * Sets the port the spectators connect to in order to watch a table.
+   *
+   * @param spectatorPort the port, or 0 to serve no spectator
+   */
+  public void setSpectatorPort(int spectatorPort) {
+    this.spectatorPort = spectatorPort;
+  }
+
+  /**
+   * Sets the journal every game is written to, so the games in progress survive a crash.
+   *
+   * @param journal the journal
+   */
+  public void setJournal(GameJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Sets the number of frames a player may leave unacknowledged before the game waits.
+   *
+   * @param ackWindow the window, 1 to wait for every ACK
+   */
+  public void setAckWindow(int ackWindow) {
+    this.ackWindow = ackWindow;
+  }
+
+  /**
+   * Sets up network. This thread always accepts new connect requests from clients and hands them
+   * to the table manager, which seats them at a table.
+   */
+  public void setUpNetwork() {
+    try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+      serverChannel.bind(new InetSocketAddress(port));
+      for (int i = 0; i < loops.length; i++) {
+        loops[i] = new NioEventLoop();
+        Thread thread = new Thread(loops[i], "yahtzee-io-" + i);
+        thread.start();
+      }
+      tableManager = new TableManager(maxPlayer, maxRound, maxTables, loops);
+      tableManager.setDiceSources(diceSources);
+      tableManager.setJournal(journal);
+      tableManager.setAckWindow(ackWindow);
+      if (timeoutPolicy != null) {
+        tableManager.setResponseTimeout(YahtzeeServer.newTimer(), responseTimeout, timeoutPolicy);
+      }
+      Metrics.get().setGauge("active_games", tableManager::getActiveGames);
+      Metrics.get().setGauge("active_players", tableManager::getActivePlayers);
+      Metrics.get().setGauge("leaderboard_entries", Leaderboard.get()::getSize);
+      if (spectatorPort != 0) {
+        YahtzeeServer.startSpectators(spectatorPort, tableManager);
+      }
+      System.out.println("Server setups successfully.");
+      while (true) {
+        join(serverChannel.accept());
+      }
+    } catch (IOException ex) {
+      System.out.println(SYSTEM + " " + ex.getMessage());
+    }
+  }
+
+  /**
+   * Helper method that finds a seat for a new player and hands them to the I/O thread that owns
+   * the table. The player waits in the table manager while every table is busy, and is seated
+   * again at another table if the game of the first one starts before they join.
+   *
+   * @param channel the channel of the player
+   */
+  private void join(SocketChannel channel) {
+    tableManager.join((table, playerId) -> loops[(table.getTableId() - 1) % loops.length]
+        .register(new NioConnection(playerId, channel, table, () -> join(channel))));
+  }
+}
@@ -0,0 +1,192 @@
+package server.network;
+
+import server.log.EventLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The type Queued connection that never writes to its socket on the thread of the game. Queued
+ * messages are kept as a list of buffers, the shared bytes of an encoded frame being wrapped as
+ * they are, and a flush only hands them to the writer of the connection. The writer runs on a
+ * thread of its own and is the only one to block on the socket, so a player who stops reading
+ * holds up nobody but their own writer. Once a player is more than a megabyte behind, the
+ * connection is closed and the reading side is left to notice that the player is gone.
+ */
+public abstract class QueuedConnection extends Connection implements Runnable {
+
+  private ByteBuffer[] segments = new ByteBuffer[16];
+  private int count;
+  private int size;
+  private ByteBuffer[] ready = new ByteBuffer[16];
+  private int readyCount;
+  private long backlog;
+  private boolean closed;
+  private ByteBuffer[] batch = new ByteBuffer[16];
+  private int batchCount;
+
+  @Override
+  public void send(EncodedFrame frame, int msgId) {
+    if (isBinary(frame)) {
+      write(header, 0, frame.encodeBinaryHeader(header, msgId));
+      addSegment(ByteBuffer.wrap(frame.getBinaryBody()));
+      return;
+    }
+    addSegment(ByteBuffer.wrap(frame.getHead()));
+    int offset = encodeDigits(msgId);
+    write(digits, offset, digits.length - offset);
+    addSegment(ByteBuffer.wrap(frame.getTail()));
+  }
+
+  @Override
+  protected void write(byte[] bytes, int offset, int length) {
+    addSegment(ByteBuffer.wrap(Arrays.copyOfRange(bytes, offset, offset + length)));
+  }
+
+  @Override
+  protected void flushWrites() {
+    if (count == 0) {
+      return;
+    }
+    boolean overflow = hand(segments, count, size);
+    Arrays.fill(segments, 0, count, null);
+    count = 0;
+    size = 0;
+    if (overflow) {
+      close();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!markClosed()) {
+      return;
+    }
+    try {
+      closeSocket();
+    } catch (IOException ex) {
+      EventLog.get().error(0, ex);
+    }
+  }
+
+  /**
+   * Write the buffers handed by the flushes until the connection is closed or the socket fails.
+   * This is the writer of the connection, which must run on a thread of its own.
+   */
+  @Override
+  public void run() {
+    while (take()) {
+      long written = 0;
+      for (int i = 0; i < batchCount; i++) {
+        written += batch[i].remaining();
+      }
+      try {
+        writeOut(batch, batchCount);
+      } catch (IOException ex) {
+        close();
+        return;
+      }
+      Arrays.fill(batch, 0, batchCount, null);
+      release(written);
+    }
+  }
+
+  /**
+   * Write buffers to the socket, blocking until they are all written.
+   *
+   * @param batch the buffers
+   * @param batchCount the number of buffers
+   * @throws IOException if the socket fails
+   */
+  protected abstract void writeOut(ByteBuffer[] batch, int batchCount) throws IOException;
+
+  /**
+   * Close the socket, which also wakes up a writer blocked on it.
+   *
+   * @throws IOException the io exception
+   */
+  protected abstract void closeSocket() throws IOException;
+
+  /**
+   * Helper method that queues a buffer.
+   *
+   * @param segment the buffer
+   */
+  private void addSegment(ByteBuffer segment) {
+    if (count == segments.length) {
+      segments = Arrays.copyOf(segments, count * 2);
+    }
+    segments[count++] = segment;
+    size += segment.remaining();
+  }
+
+  /**
+   * Helper method that marks the connection as closed and wakes up its writer.
+   *
+   * @return true if the connection was not closed yet
+   */
+  private synchronized boolean markClosed() {
+    if (closed) {
+      return false;
+    }
+    closed = true;
+    notifyAll();
+    return true;
+  }
+
+  /**
+   * Helper method that waits for buffers to write and takes them all as the batch of the writer.
+   *
+   * @return true if there is a batch to write, false once the connection is closed
+   */
+  private synchronized boolean take() {
+    while (readyCount == 0 && !closed) {
+      try {
+        wait();
+      } catch (InterruptedException ex) {
+        return false;
+      }
+    }
+    if (closed) {
+      return false;
+    }
+    ByteBuffer[] taken = ready;
+    ready = batch;
+    batch = taken;
+    batchCount = readyCount;
+    readyCount = 0;
+    return true;
+  }
+
+  /**
+   * Helper method that takes written bytes off the backlog of the player.
+   *
+   * @param written the number of bytes
+   */
+  private synchronized void release(long written) {
+    backlog -= written;
+  }
+
+  /**
+   * Helper method that hands the queued buffers to the writer.
+   *
+   * @param queued the buffers
+   * @param queuedCount the number of buffers
+   * @param queuedSize the number of bytes
+   * @return true if the player is too far behind, false otherwise
+   */
+  private synchronized boolean hand(ByteBuffer[] queued, int queuedCount, int queuedSize) {
+    if (closed) {
+      return false;
+    }
+    if (readyCount + queuedCount > ready.length) {
+      ready = Arrays.copyOf(ready, Math.max(ready.length * 2, readyCount + queuedCount));
+    }
+    System.arraycopy(queued, 0, ready, readyCount, queuedCount);
+    readyCount += queuedCount;
+    backlog += queuedSize;
+    notifyAll();
+    return backlog > MAX_BACKLOG;
+  }
+}
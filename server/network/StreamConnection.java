@@ -0,0 +1,43 @@
+package server.network;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The type Stream connection that writes to the output stream of a blocking socket. Like a
+ * PrintWriter, it never throws: once writing fails, the connection is closed and the reading side
+ * of the connection is left to notice that the player is gone. The stream is only written by the
+ * writer of the connection.
+ */
+public class StreamConnection extends QueuedConnection {
+
+  private OutputStream socketOutput;
+  private OutputStream output;
+
+  /**
+   * Instantiates a new Stream connection.
+   *
+   * @param output the output stream
+   */
+  public StreamConnection(OutputStream output) {
+    this.socketOutput = output;
+    this.output = new BufferedOutputStream(output);
+  }
+
+  @Override
+  protected void writeOut(ByteBuffer[] batch, int batchCount) throws IOException {
+    for (int i = 0; i < batchCount; i++) {
+      ByteBuffer segment = batch[i];
+      output.write(segment.array(), segment.arrayOffset() + segment.position(),
+          segment.remaining());
+    }
+    output.flush();
+  }
+
+  @Override
+  protected void closeSocket() throws IOException {
+    socketOutput.close();
+  }
+}
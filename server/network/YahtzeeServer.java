@@ -1,20 +1,33 @@
 package server.network;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
+import protocol.BinaryFrame;
+import protocol.ClientProtocol;
+import protocol.FrameExceptions;
+import protocol.WireDecoder;
 import server.controller.GameController;
-import server.state.StartingGame;
+import server.controller.TableManager;
+import server.controller.TimeoutPolicy;
+import server.game.DiceSource;
+import server.journal.GameJournal;
+import server.leaderboard.Leaderboard;
+import server.log.EventLog;
+import server.metrics.Metrics;
+import server.spectator.SpectatorServer;
+import server.timer.HashedWheelTimer;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The type Yahtzee server that used to manage the network connection of the Server.
@@ -33,9 +46,14 @@ public class YahtzeeServer {
    * The constant CLIENT.
    */
   public static final String CLIENT = "[CLIENT]";
+  private static final int TIMER_TICK_MILLIS = 100;
+  private static final int TIMER_WHEEL_SIZE = 512;
   private int port;
   private ExecutorService service;
-  private GameController controller;
+  private boolean virtualThreads;
+  private boolean gatheringWrites;
+  private int spectatorPort;
+  private TableManager tableManager;
   private BlockingQueue<Socket> queue = new ArrayBlockingQueue<>(50);
 
   /**
@@ -44,11 +62,85 @@ public class YahtzeeServer {
    * @param port the port
    * @param maxRound the max round
    * @param maxPlayer the max player
+   * @param maxTables the max number of tables
+   */
+  public YahtzeeServer(int port, int maxRound, int maxPlayer, int maxTables) {
+    this(port, maxRound, maxPlayer, maxTables, false);
+  }
+
+  /**
+   * Instantiates a new Yahtzee server. Without virtual threads, every client uses two platform
+   * threads, one reading and one writing, taken from a pool that grows with the clients actually
+   * connected and lets idle threads go, rather than one sized for every seat of every table.
+   *
+   * @param port the port
+   * @param maxRound the max round
+   * @param maxPlayer the max player
+   * @param maxTables the max number of tables
+   * @param virtualThreads true to run every handler on its own virtual thread
    */
-  public YahtzeeServer(int port, int maxRound, int maxPlayer) {
+  public YahtzeeServer(int port, int maxRound, int maxPlayer, int maxTables,
+      boolean virtualThreads) {
     this.port = port;
-    service = Executors.newFixedThreadPool(maxPlayer);
-    controller = new GameController(maxPlayer, maxRound);
+    this.virtualThreads = virtualThreads;
+    service = virtualThreads ? newVirtualThreadExecutor() : Executors.newCachedThreadPool();
+    tableManager = new TableManager(maxPlayer, maxRound, maxTables);
+  }
+
+  /**
+   * Sets if the messages to the clients are written by gathering writes on socket channels.
+   *
+   * @param gatheringWrites true to use gathering writes
+   */
+  public void setGatheringWrites(boolean gatheringWrites) {
+    this.gatheringWrites = gatheringWrites;
+  }
+
+  /**
+   * Sets the factory of the dice source of each game.
+   *
+   * @param diceSources the factory
+   */
+  public void setDiceSources(DiceSource.Factory diceSources) {
+    tableManager.setDiceSources(diceSources);
+  }
+
+  /**
+   * Sets the time the players have to answer a frame needing a response, and what happens when
+   * they do not. The deadlines of all the games are checked by one timer.
+   *
+   * @param seconds the time in seconds
+   * @param policy the timeout policy
+   */
+  public void setResponseTimeout(int seconds, TimeoutPolicy policy) {
+    tableManager.setResponseTimeout(newTimer(), TimeUnit.SECONDS.toNanos(seconds), policy);
+  }
+
+  /**
+   * Sets the port the spectators connect to in order to watch a table.
+   *
+   * @param spectatorPort the port, or 0 to serve no spectator
+   */
+  public void setSpectatorPort(int spectatorPort) {
+    this.spectatorPort = spectatorPort;
+  }
+
+  /**
+   * Sets the journal every game is written to, so the games in progress survive a crash.
+   *
+   * @param journal the journal
+   */
+  public void setJournal(GameJournal journal) {
+    tableManager.setJournal(journal);
+  }
+
+  /**
+   * Sets the number of frames a player may leave unacknowledged before the game waits.
+   *
+   * @param ackWindow the window, 1 to wait for every ACK
+   */
+  public void setAckWindow(int ackWindow) {
+    tableManager.setAckWindow(ackWindow);
   }
 
   /**
@@ -56,9 +148,20 @@ public class YahtzeeServer {
    * request into a queue.
    */
   public void setUpNetwork() {
-    try (ServerSocket serverSocket = new ServerSocket(port);) {
+    try (ServerSocket serverSocket = openServerSocket()) {
+      Metrics.get().setGauge("accept_queue_depth", queue::size);
+      Metrics.get().setGauge("active_games", tableManager::getActiveGames);
+      Metrics.get().setGauge("active_players", tableManager::getActivePlayers);
+      Metrics.get().setGauge("leaderboard_entries", Leaderboard.get()::getSize);
+      if (spectatorPort != 0) {
+        startSpectators(spectatorPort, tableManager);
+      }
       System.out.println("Server setups successfully.");
-      new Thread(new JoinRequestHandler()).start();
+      if (virtualThreads) {
+        service.execute(new JoinRequestHandler());
+      } else {
+        new Thread(new JoinRequestHandler()).start();
+      }
       while (true) {
         Socket clientSocket = serverSocket.accept();
         queue.put(clientSocket);
@@ -71,10 +174,67 @@ public class YahtzeeServer {
   }
 
   /**
-   * The type Join request handler. This thread used to decide whether take a client request from
-   * the queue to join the game. The basic rule is that if and only if the game is in the starting
-   * status AND the current player number is less than the max players number, the client request
-   * should be accepted and open a new thread for the client.
+   * Create the timer checking the response deadlines of all the games of a server.
+   *
+   * @return the timer
+   */
+  static HashedWheelTimer newTimer() {
+    return new HashedWheelTimer("yahtzee-timer", TIMER_TICK_MILLIS, TimeUnit.MILLISECONDS,
+        TIMER_WHEEL_SIZE);
+  }
+
+  /**
+   * Start serving the spectators of the tables on a thread of their own.
+   *
+   * @param port the port
+   * @param tableManager the table manager of the server
+   * @throws IOException if the port can not be bound
+   */
+  static void startSpectators(int port, TableManager tableManager) throws IOException {
+    SpectatorServer spectators = new SpectatorServer(port, tableManager);
+    Thread thread = new Thread(spectators, "yahtzee-spectators");
+    thread.setDaemon(true);
+    thread.start();
+    Metrics.get().setGauge("spectators", spectators::getWatcherCount);
+  }
+
+  /**
+   * Open the server socket. With gathering writes it is the socket of a blocking server socket
+   * channel, so every accepted socket also has a channel to write to.
+   *
+   * @return the server socket
+   * @throws IOException the io exception
+   */
+  private ServerSocket openServerSocket() throws IOException {
+    if (gatheringWrites) {
+      return ServerSocketChannel.open().bind(new InetSocketAddress(port)).socket();
+    }
+    return new ServerSocket(port);
+  }
+
+  /**
+   * Create an executor that starts a new virtual thread for each task. Virtual threads are looked
+   * up at runtime, so on a JVM without them the server falls back to unbounded platform threads.
+   *
+   * @return the executor service
+   */
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      EventLog.get().system(0, "Virtual threads are not supported by this JVM. "
+          + "Platform threads are used instead.");
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  /**
+   * The type Join request handler. This thread used to decide which table a client request taken
+   * from the queue should join. The basic rule is that a client can only join a table which is in
+   * the starting status AND whose current player number is less than the max players number. If
+   * every table is running and no more table can be opened, the request waits in the table manager
+   * until a seat is free, so the requests behind it are not held up.
    */
   public class JoinRequestHandler implements Runnable {
 
@@ -82,76 +242,96 @@ public class YahtzeeServer {
     public void run() {
       try {
         while (true) {
-          if (controller.getCurPlayerNumber() < controller.getMaxPlayer()) {
-            Socket socket = queue.take();
-            if (!(controller.getState() instanceof StartingGame)) {
-              controller.getLatch().await();
-            }
-            ClientHandler client = new ClientHandler(controller.getLastPlayerId(), socket,
-                controller);
-            controller.addCurPlayerNumber();
-            service.execute(client);
-            Thread.sleep(100);
-          } else {
-            controller.setUpLatch();
-            controller.getLatch().await();
-            controller.setState(controller.getStartingGame());
+          Socket socket = queue.take();
+          try {
+            tableManager.join(new ClientHandler(socket, service, tableManager));
+          } catch (IOException ex) {
+            EventLog.get().error(0, ex);
+            close(socket);
           }
         }
       } catch (InterruptedException ex) {
         ex.printStackTrace();
       }
     }
+
+    /**
+     * Helper method that closes the socket of a client that could not be handled.
+     *
+     * @param socket the socket
+     */
+    private void close(Socket socket) {
+      try {
+        socket.close();
+      } catch (IOException ex) {
+        ex.printStackTrace();
+      }
+    }
   }
 
   /**
-   * The type Client handler. This thread used to communicate with a special client.
+   * The type Client handler. This thread used to communicate with a special client. It reads the
+   * messages of the client, while the messages to the client are written by the writer of its
+   * connection on another thread, so the games never wait for a socket. The client is only read
+   * once a table has seated it, and a table refusing it sends it back to the table manager.
    */
-  public static class ClientHandler implements Runnable {
+  public static class ClientHandler implements Runnable, TableManager.Joiner {
 
     private int playerId;
     private Socket socket;
     private GameController controller;
+    private Executor executor;
+    private TableManager tableManager;
+    private QueuedConnection output;
 
     /**
      * Instantiates a new Client handler.
      *
-     * @param playerId the player id
      * @param socket the socket
-     * @param controller the controller
+     * @param executor the executor running the reader and the writer of the connection
+     * @param tableManager the table manager finding a seat for the client
+     * @throws IOException the io exception
      */
-    public ClientHandler(int playerId, Socket socket, GameController controller) {
-      this.playerId = playerId;
+    public ClientHandler(Socket socket, Executor executor, TableManager tableManager)
+        throws IOException {
       this.socket = socket;
-      this.controller = controller;
+      this.executor = executor;
+      this.tableManager = tableManager;
+      output = openOutput();
+    }
+
+    @Override
+    public void seat(GameController table, int playerId) {
+      table.post(() -> {
+        if (!joinGame(table, playerId, output)) {
+          tableManager.join(this);
+          return;
+        }
+        this.controller = table;
+        this.playerId = playerId;
+        executor.execute(output);
+        executor.execute(this);
+      });
     }
 
     @Override
     public void run() {
-      try (PrintWriter output = new PrintWriter(socket.getOutputStream(),
-          true); BufferedReader input = new BufferedReader(
-          new InputStreamReader(socket.getInputStream(), UTF_8))) {
-        System.out.println(
-            SYSTEM + " New client connected: " + socket.getInetAddress() + ": " + socket.getPort());
-        controller.addPlayer(playerId, output);
-        controller.sendMessage(playerId, "INFO",
-            "You joined the game now. Your name is PLAYER-" + playerId + ". Please enjoy yourself.",
-            false);
-        controller.sendMessageAll("INFO",
-            "PLAYER-" + playerId + " joined game. Current player number is " + controller
-                .getCurPlayerNumber() + ".", false);
-        controller.getUnhandledMsg().clear();
-        controller.sendMessageAll("START_GAME", true);
-        String message;
-        while ((message = input.readLine()) != null) {
-          System.out.println(SYSTEM + " Current state: " + controller.getCurrentStateString());
-          System.out.println(CLIENT + " PLAYER-" + playerId + " " + message);
-          controller.processRequest(playerId, message);
+      try (InputStream input = new BufferedInputStream(socket.getInputStream())) {
+        EventLog.get().connection(controller.getTableId(), playerId,
+            "New client connected: " + socket.getInetAddress() + ": " + socket.getPort());
+        WireDecoder decoder = new WireDecoder();
+        while (decoder.read(input)) {
+          if (decoder.isBinary()) {
+            handleFrame(controller, playerId, decoder);
+          } else {
+            handleMessage(controller, playerId, decoder.getLine());
+          }
         }
-        controller.getState().playerQuit(playerId);
+        quitGame(controller, playerId);
       } catch (IOException ex) {
-        controller.getState().playerQuit(playerId);
+        quitGame(controller, playerId);
       } finally {
+        output.close();
         try {
           socket.close();
         } catch (IOException ex) {
@@ -159,5 +339,103 @@ public class YahtzeeServer {
         }
       }
     }
+
+    /**
+     * Helper method that opens the connection the messages to the client are written to. Its
+     * writer is only started once the client is seated, and writes what was queued until then.
+     *
+     * @return the connection
+     * @throws IOException the io exception
+     */
+    private QueuedConnection openOutput() throws IOException {
+      return socket.getChannel() != null ? new GatheringConnection(socket.getChannel())
+          : new StreamConnection(socket.getOutputStream());
+    }
+  }
+
+  /**
+   * Seat a new connected player at the given table and restart the starting game handshake. The
+   * table refuses the player if its game has started since the seat was reserved.
+   *
+   * @param controller the controller of the table
+   * @param playerId the player id
+   * @param output the output object of the player
+   * @return true if the player is seated, false if the player needs another table
+   */
+  public static boolean joinGame(GameController controller, int playerId, Connection output) {
+    if (!controller.join(playerId, output)) {
+      EventLog.get().system(controller.getTableId(),
+          "PLAYER-" + playerId + " can not join, the game has started. Finding another table.");
+      return false;
+    }
+    controller.sendMessage(playerId, "INFO",
+        "You joined the game now. Your name is PLAYER-" + playerId + ". Please enjoy yourself.",
+        false);
+    controller.sendMessageAll("INFO",
+        "PLAYER-" + playerId + " joined game. Current player number is " + controller
+            .getCurPlayerNumber() + ".", false);
+    controller.restartGame();
+    return true;
+  }
+
+  /**
+   * Hand a message received from a player to the mailbox of the table.
+   *
+   * @param controller the controller of the table
+   * @param playerId the player id
+   * @param message the message
+   */
+  static void handleMessage(GameController controller, int playerId, String message) {
+    if (message.equals(BinaryFrame.HELLO)) {
+      controller.post(() -> {
+        EventLog.get().inbound(controller.getTableId(), playerId, message);
+        controller.upgradeProtocol(playerId);
+      });
+      return;
+    }
+    if (message.equals(ClientProtocol.HELLO_V2)) {
+      controller.post(() -> {
+        EventLog.get().inbound(controller.getTableId(), playerId, message);
+        controller.fuseTurns(playerId);
+      });
+      return;
+    }
+    controller.post(() -> {
+      EventLog.get().inbound(controller.getTableId(), playerId, message);
+      controller.processRequest(playerId, message);
+    });
+  }
+
+  /**
+   * Hand a binary frame received from a player to the mailbox of the table. The frame is turned
+   * into the tokens of its text form on the reading thread, since the decoder is reused for the
+   * next frame. A malformed frame is dropped.
+   *
+   * @param controller the controller of the table
+   * @param playerId the player id
+   * @param decoder the decoder holding the frame
+   */
+  static void handleFrame(GameController controller, int playerId, WireDecoder decoder) {
+    String[] tokens;
+    try {
+      tokens = decoder.getFrame().toTokens();
+    } catch (FrameExceptions ex) {
+      EventLog.get().error(controller.getTableId(), ex);
+      return;
+    }
+    controller.post(() -> {
+      EventLog.get().inbound(controller.getTableId(), playerId, tokens);
+      controller.processRequest(playerId, tokens);
+    });
+  }
+
+  /**
+   * Let a player whose connection is closed quit the game of the table.
+   *
+   * @param controller the controller of the table
+   * @param playerId the player id
+   */
+  public static void quitGame(GameController controller, int playerId) {
+    controller.post(() -> controller.playerQuit(playerId));
   }
-}
\ No newline at end of file
+}
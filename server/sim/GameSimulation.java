@@ -0,0 +1,206 @@
+package server.sim;
+
+import client.bot.MovePolicy;
+import protocol.BinaryFrame;
+import server.controller.GameController;
+import server.game.DiceSource;
+import server.network.EncodedFrame;
+import server.network.MemoryConnection;
+import server.network.YahtzeeServer;
+
+/**
+ * The type Game simulation that plays one complete game inside the process, without any socket.
+ * The players are seated at a game controller of their own through memory connections, and every
+ * frame asking for a response is answered by a move policy, so the game goes through the real
+ * server states from the starting game to the game over. The mailbox of the game runs its tasks
+ * on the calling thread, so a whole game is played by one thread.
+ */
+public class GameSimulation {
+
+  private static final int DICE_NUMBER = 5;
+  private int tableId;
+  private int maxPlayer;
+  private int maxRound;
+  private DiceSource.Factory diceSources;
+  private MovePolicy policy;
+  private int ackWindow = 1;
+  private boolean fusedTurns;
+  private int[] dice = new int[DICE_NUMBER];
+  private int[] scores = new int[BinaryFrame.SCORE_NAMES.length];
+  private long requests;
+
+  /**
+   * Instantiates a new Game simulation.
+   *
+   * @param tableId the table id of the game, which also picks the dice of a seeded game
+   * @param maxPlayer the number of players
+   * @param maxRound the number of rounds
+   * @param diceSources the factory of the dice source of the game
+   * @param policy the move policy of every player
+   */
+  public GameSimulation(int tableId, int maxPlayer, int maxRound, DiceSource.Factory diceSources,
+      MovePolicy policy) {
+    this.tableId = tableId;
+    this.maxPlayer = maxPlayer;
+    this.maxRound = maxRound;
+    this.diceSources = diceSources;
+    this.policy = policy;
+  }
+
+  /**
+   * Sets the number of frames a player may leave unacknowledged.
+   *
+   * @param ackWindow the window, 1 to wait for every ACK
+   */
+  public void setAckWindow(int ackWindow) {
+    this.ackWindow = ackWindow;
+  }
+
+  /**
+   * Sets if the players ask for the fused turn frames of the protocol version 2.
+   *
+   * @param fusedTurns true or false
+   */
+  public void setFusedTurns(boolean fusedTurns) {
+    this.fusedTurns = fusedTurns;
+  }
+
+  /**
+   * Play the game until every player has answered the game over, then let them all quit.
+   *
+   * @return true if the game was played to the end, false if it got stuck
+   */
+  public boolean play() {
+    GameController controller = new GameController(tableId, maxPlayer, maxRound, Runnable::run,
+        diceSources);
+    controller.setAckWindow(ackWindow);
+    Seat[] seats = new Seat[maxPlayer];
+    for (int i = 0; i < maxPlayer; i++) {
+      Seat seat = new Seat(controller.reserveSeat());
+      seats[i] = seat;
+      controller.post(() -> YahtzeeServer.joinGame(controller, seat.playerId, seat.connection));
+      if (fusedTurns) {
+        controller.post(() -> controller.fuseTurns(seat.playerId));
+      }
+    }
+    int over = 0;
+    boolean progress = true;
+    while (over < maxPlayer && progress) {
+      progress = false;
+      for (Seat seat : seats) {
+        if (!seat.over && respond(controller, seat)) {
+          progress = true;
+          over += seat.over ? 1 : 0;
+        }
+      }
+    }
+    for (Seat seat : seats) {
+      YahtzeeServer.quitGame(controller, seat.playerId);
+      seat.connection.close();
+    }
+    return over == maxPlayer;
+  }
+
+  /**
+   * Gets the number of requests sent to the server by the players so far.
+   *
+   * @return the number of requests
+   */
+  public long getRequests() {
+    return requests;
+  }
+
+  /**
+   * Helper method that answers every frame flushed to a player and asking for a response. A
+   * START_GAME followed by another one is skipped, since the later one replaces it when a player
+   * joins. The answers are handled right away, so messages they cause are kept for the next call.
+   *
+   * @param controller the game controller
+   * @param seat the seat of the player
+   * @return true if any frame was answered, false otherwise
+   */
+  private boolean respond(GameController controller, Seat seat) {
+    MemoryConnection connection = seat.connection;
+    int count = connection.getMessageCount();
+    int lastStart = -1;
+    for (int i = 0; i < count; i++) {
+      EncodedFrame frame = connection.getFrame(i);
+      if (frame != null && frame.getFrame().equals("START_GAME")) {
+        lastStart = i;
+      }
+    }
+    boolean answered = false;
+    for (int i = 0; i < count && !seat.over; i++) {
+      EncodedFrame frame = connection.getFrame(i);
+      if (frame == null || !frame.isResponseRequired()
+          || frame.getFrame().equals("START_GAME") && i != lastStart) {
+        continue;
+      }
+      String[] request = answer(frame, String.valueOf(connection.getMsgId(i)));
+      requests++;
+      answered = true;
+      seat.over = frame.getFrame().equals("GAME_OVER");
+      controller.post(() -> controller.processRequest(seat.playerId, request));
+    }
+    connection.consume(count);
+    return answered;
+  }
+
+  /**
+   * Helper method that chooses the answer to a frame, already split into the tokens the server
+   * parses.
+   *
+   * @param frame the frame
+   * @param msgId the message id of the frame
+   * @return the tokens of the answer
+   */
+  private String[] answer(EncodedFrame frame, String msgId) {
+    switch (frame.getFrame()) {
+      case "START_TURN_DICE":
+      case "CHOOSE_DICE":
+      case "INVALID_DICE_CHOICE":
+        String content = frame.getContent();
+        for (int i = 0; i < DICE_NUMBER; i++) {
+          dice[i] = content.charAt(i * 2) - '0';
+        }
+        int[] keeps = policy.keepDice(dice);
+        String[] keepDice = new String[DICE_NUMBER + 2];
+        keepDice[0] = "KEEP_DICE";
+        keepDice[1] = msgId;
+        for (int i = 0; i < DICE_NUMBER; i++) {
+          keepDice[i + 2] = keeps[i] == 0 ? "0" : "1";
+        }
+        return keepDice;
+      case "CHOOSE_SCORE":
+      case "SCORE_CHOICE_INVALID":
+        String[] strs = frame.getContent().split(" ");
+        for (int i = 0; i < scores.length; i++) {
+          String value = strs[i * 2 + 1];
+          scores[i] = value.equals("UNAVAILABLE") ? -1 : Integer.parseInt(value);
+        }
+        return new String[]{"SCORE_CHOICE", msgId,
+            policy.chooseScore(BinaryFrame.SCORE_NAMES, scores)};
+      default:
+        return new String[]{"ACK", msgId};
+    }
+  }
+
+  /**
+   * The type Seat that holds one simulated player.
+   */
+  private static class Seat {
+
+    private int playerId;
+    private MemoryConnection connection = new MemoryConnection();
+    private boolean over;
+
+    /**
+     * Instantiates a new Seat.
+     *
+     * @param playerId the player id
+     */
+    Seat(int playerId) {
+      this.playerId = playerId;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package server.sim;
+
+import server.controller.GameController;
+import server.controller.TableManager;
+import server.log.ConsoleSink;
+import server.log.EventLog;
+import server.log.LogLevel;
+import server.network.EncodedFrame;
+import server.network.MemoryConnection;
+import server.network.YahtzeeServer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+
+/**
+ * The type Join race check that replays, inside the process, a join racing the start of a game. A
+ * seat is reserved for a third player, the two players already seated acknowledge START_GAME and
+ * start the game, and only then does the join of the third player run on the table. The table must
+ * refuse the late player, who is seated at another table instead, and the started game must go on
+ * with the ACKs its players still owe. The tasks of the tables are run by hand, so the interleaving
+ * is the same on every run.
+ */
+public class JoinRaceCheck {
+
+  private static final int PLAYERS = 3;
+  private Deque<Runnable> tasks = new ArrayDeque<>();
+  private TableManager tableManager = new TableManager(PLAYERS, 1, 2,
+      new Executor[]{tasks::add});
+  private MemoryConnection[] outputs = new MemoryConnection[PLAYERS];
+  private GameController[] tables = new GameController[PLAYERS];
+  private int[] playerIds = new int[PLAYERS];
+  private boolean passed = true;
+
+  /**
+   * The entry point of the check. The process exits with 1 if the check fails.
+   *
+   * @param args the input arguments
+   */
+  public static void main(String[] args) {
+    EventLog.configure(LogLevel.OFF, new ConsoleSink());
+    if (new JoinRaceCheck().run()) {
+      System.out.println("Join race check passed.");
+    } else {
+      System.out.println("Join race check failed.");
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Replay the join racing the start of the game.
+   *
+   * @return true if every step went as expected, false otherwise
+   */
+  public boolean run() {
+    for (int i = 0; i < PLAYERS; i++) {
+      outputs[i] = new MemoryConnection();
+    }
+    tableManager.join(joinNow(0));
+    tableManager.join(joinNow(1));
+    drain();
+    tableManager.join((table, playerId) -> {
+      tables[2] = table;
+      playerIds[2] = playerId;
+    });
+    GameController table = tables[0];
+    check("The third seat is reserved at the table of the first players.", tables[2] == table);
+    acknowledge(0);
+    acknowledge(1);
+    drain();
+    check("The first players start the game.", table.getState() == table.getStartingRound());
+    int lateId = playerIds[2];
+    table.post(() -> {
+      if (!YahtzeeServer.joinGame(table, lateId, outputs[2])) {
+        tableManager.join(joinNow(2));
+      }
+    });
+    drain();
+    check("The started game refuses the late player.",
+        table.getPlayer(lateId) == null && table.getCurPlayerNumber() == 2);
+    check("The started game keeps the ACKs its players owe.",
+        !table.getUnhandledMsg().isSettled());
+    check("The late player is seated at another table.",
+        tables[2] != table && tables[2].getPlayer(playerIds[2]) != null);
+    acknowledge(0);
+    acknowledge(1);
+    drain();
+    check("The started game goes on.", table.getState() != table.getStartingRound());
+    return passed;
+  }
+
+  /**
+   * Helper method that creates a new player who joins the table as soon as a seat is reserved.
+   *
+   * @param seat the index of the player
+   * @return the new player
+   */
+  private TableManager.Joiner joinNow(int seat) {
+    return (table, playerId) -> {
+      tables[seat] = table;
+      playerIds[seat] = playerId;
+      table.post(() -> YahtzeeServer.joinGame(table, playerId, outputs[seat]));
+    };
+  }
+
+  /**
+   * Helper method that acknowledges the last frame flushed to a player and asking for a response.
+   *
+   * @param seat the index of the player
+   */
+  private void acknowledge(int seat) {
+    MemoryConnection connection = outputs[seat];
+    int count = connection.getMessageCount();
+    int msgId = 0;
+    for (int i = 0; i < count; i++) {
+      EncodedFrame frame = connection.getFrame(i);
+      if (frame != null && frame.isResponseRequired()) {
+        msgId = connection.getMsgId(i);
+      }
+    }
+    connection.consume(count);
+    GameController table = tables[seat];
+    String[] request = {"ACK", String.valueOf(msgId)};
+    table.post(() -> table.processRequest(playerIds[seat], request));
+  }
+
+  /**
+   * Helper method that runs the tasks of the tables until none is left.
+   */
+  private void drain() {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      task.run();
+    }
+  }
+
+  /**
+   * Helper method that prints the result of a step.
+   *
+   * @param step the step
+   * @param result true if the step went as expected
+   */
+  private void check(String step, boolean result) {
+    System.out.println((result ? "PASS " : "FAIL ") + step);
+    passed &= result;
+  }
+}
@@ -0,0 +1,143 @@
+package server.sim;
+
+import client.bot.MovePolicy;
+import server.game.DiceSource;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Simulation that plays many games in parallel on a fork/join pool. The range of games is
+ * split in halves until a batch is small enough to be played by one worker, each game on a game
+ * controller of its own, so the workers never share a game and the throughput measured is the one
+ * of the game logic alone.
+ */
+public class Simulation {
+
+  private static final int BATCH_SIZE = 16;
+  private int games;
+  private int maxPlayer;
+  private int maxRound;
+  private DiceSource.Factory diceSources;
+  private MovePolicy policy;
+  private int ackWindow = 1;
+  private boolean fusedTurns;
+  private LongAdder gamesPlayed = new LongAdder();
+  private LongAdder gamesStuck = new LongAdder();
+  private LongAdder requests = new LongAdder();
+
+  /**
+   * Instantiates a new Simulation.
+   *
+   * @param games the number of games
+   * @param maxPlayer the number of players in each game
+   * @param maxRound the number of rounds in each game
+   * @param diceSources the factory of the dice source of each game
+   * @param policy the move policy of every player
+   */
+  public Simulation(int games, int maxPlayer, int maxRound, DiceSource.Factory diceSources,
+      MovePolicy policy) {
+    this.games = games;
+    this.maxPlayer = maxPlayer;
+    this.maxRound = maxRound;
+    this.diceSources = diceSources;
+    this.policy = policy;
+  }
+
+  /**
+   * Sets the number of frames a player may leave unacknowledged in every game.
+   *
+   * @param ackWindow the window, 1 to wait for every ACK
+   */
+  public void setAckWindow(int ackWindow) {
+    this.ackWindow = ackWindow;
+  }
+
+  /**
+   * Sets if the players of every game ask for the fused turn frames of the protocol version 2.
+   *
+   * @param fusedTurns true or false
+   */
+  public void setFusedTurns(boolean fusedTurns) {
+    this.fusedTurns = fusedTurns;
+  }
+
+  /**
+   * Play all the games on the given pool and wait until they are over.
+   *
+   * @param pool the fork/join pool
+   */
+  public void run(ForkJoinPool pool) {
+    pool.invoke(new Batch(1, games + 1));
+  }
+
+  /**
+   * Gets the number of games played to the end.
+   *
+   * @return the number of games
+   */
+  public long getGamesPlayed() {
+    return gamesPlayed.sum();
+  }
+
+  /**
+   * Gets the number of games that got stuck before the end.
+   *
+   * @return the number of games
+   */
+  public long getGamesStuck() {
+    return gamesStuck.sum();
+  }
+
+  /**
+   * Gets the number of requests sent by all the players.
+   *
+   * @return the number of requests
+   */
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * The type Batch that plays a range of games, the table id of each game being its number.
+   */
+  private class Batch extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private int first;
+    private int end;
+
+    /**
+     * Instantiates a new Batch.
+     *
+     * @param first the number of the first game
+     * @param end the number after the last game
+     */
+    Batch(int first, int end) {
+      this.first = first;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - first > BATCH_SIZE) {
+        int middle = first + (end - first) / 2;
+        invokeAll(new Batch(first, middle), new Batch(middle, end));
+        return;
+      }
+      for (int tableId = first; tableId < end; tableId++) {
+        GameSimulation game = new GameSimulation(tableId, maxPlayer, maxRound, diceSources,
+            policy);
+        game.setAckWindow(ackWindow);
+        game.setFusedTurns(fusedTurns);
+        if (game.play()) {
+          gamesPlayed.increment();
+        } else {
+          gamesStuck.increment();
+        }
+        requests.add(game.getRequests());
+      }
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package server.sim;
+
+import argparser.ArgParser;
+import argparser.CmdLineExceptions;
+import argparser.Option;
+import argparser.Option.OptionBuilder;
+import argparser.Options;
+import client.bot.GreedyPolicy;
+import client.bot.MovePolicy;
+import client.bot.RandomPolicy;
+import server.game.DiceSource;
+import server.log.ConsoleSink;
+import server.log.EventLog;
+import server.log.LogLevel;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The type Simulation launcher that represents the entrance of the in-process game simulation. It
+ * plays complete games through the server states without any network, and reports the throughput
+ * of the game logic in games per second and per core.
+ */
+public class SimulationLauncher {
+
+  private static final int ROUND = 13;
+  private static final int PLAYERS = 4;
+  private static final int GAMES = 10000;
+  private static final String GAMES_REGEX = "^[1-9]\\d{0,8}$";
+  private static final String PLAYERS_REGEX = "^[1-9]$";
+  private static final String ROUNDS_REGEX = "^([1-9]|1[0-3])$";
+  private static final String THREADS_REGEX = "^[1-9]\\d{0,2}$";
+  private static final String LOG_REGEX = "^(DEBUG|INFO|WARN|OFF)$";
+  private static final String SEED_REGEX = "^\\d{1,18}$";
+  private static final String POLICY_REGEX = "^(GREEDY|RANDOM)$";
+  private static final String WINDOW_REGEX = "^[1-9]$";
+  private static final Options OPTIONS = new Options();
+
+  static {
+    OPTIONS.addOption(new OptionBuilder("--GAMES").hasSubOption().setSubOptionRegex(GAMES_REGEX)
+        .setDesc("The number of games to play. 10000 by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--PLAYERS").hasSubOption()
+        .setSubOptionRegex(PLAYERS_REGEX).setDesc("The number of players in a game. 4 by default.")
+        .build());
+    OPTIONS.addOption(new OptionBuilder("--ROUNDS").hasSubOption().setSubOptionRegex(ROUNDS_REGEX)
+        .setDesc("The number of rounds in a game. 13 by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--THREADS").hasSubOption()
+        .setSubOptionRegex(THREADS_REGEX)
+        .setDesc("The number of worker threads. The number of cores by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--POLICY").hasSubOption().setSubOptionRegex(POLICY_REGEX)
+        .setDesc("The move policy: GREEDY or RANDOM. GREEDY by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--SEED").hasSubOption().setSubOptionRegex(SEED_REGEX)
+        .setDesc("Roll the dice of every game from this seed, so runs can be reproduced.").build());
+    OPTIONS.addOption(new OptionBuilder("--LOG").hasSubOption().setSubOptionRegex(LOG_REGEX)
+        .setDesc("The log level: DEBUG, INFO, WARN or OFF. OFF by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--ACK_WINDOW").hasSubOption()
+        .setSubOptionRegex(WINDOW_REGEX)
+        .setDesc("The number of frames a player may leave unacknowledged. 1 by default.").build());
+    OPTIONS.addOption(new OptionBuilder("--V2")
+        .setDesc("Play the turns with the fused frames of the protocol version 2.").build());
+    OPTIONS.addExample("--GAMES 100000");
+    OPTIONS.addExample("--GAMES 100000 --PLAYERS 2 --THREADS 1");
+    OPTIONS.addExample("--GAMES 1000 --ROUNDS 3 --SEED 42 --LOG INFO");
+    OPTIONS.addExample("--GAMES 100000 --ACK_WINDOW 3");
+    OPTIONS.addExample("--GAMES 100000 --ACK_WINDOW 3 --V2");
+    OPTIONS.generateUsage();
+  }
+
+  /**
+   * The entry point of the simulation.
+   *
+   * @param args the input arguments
+   */
+  public static void main(String[] args) {
+    ArgParser argParser = new ArgParser(args, OPTIONS);
+    try {
+      Map<String, Option> validOptions = argParser.parse();
+      int games = getInt(validOptions, "--GAMES", GAMES);
+      int players = getInt(validOptions, "--PLAYERS", PLAYERS);
+      int rounds = getInt(validOptions, "--ROUNDS", ROUND);
+      int threads = getInt(validOptions, "--THREADS", Runtime.getRuntime().availableProcessors());
+      EventLog.configure(validOptions.containsKey("--LOG") ? LogLevel
+          .valueOf(validOptions.get("--LOG").getSubOptions().get(0)) : LogLevel.OFF,
+          new ConsoleSink());
+      DiceSource.Factory diceSources = validOptions.containsKey("--SEED") ? DiceSource
+          .seeded(Long.parseLong(validOptions.get("--SEED").getSubOptions().get(0)))
+          : DiceSource.fast();
+      MovePolicy policy = validOptions.containsKey("--POLICY") && validOptions.get("--POLICY")
+          .getSubOptions().get(0).equals("RANDOM") ? new RandomPolicy() : new GreedyPolicy();
+      Simulation simulation = new Simulation(games, players, rounds, diceSources, policy);
+      simulation.setAckWindow(getInt(validOptions, "--ACK_WINDOW", 1));
+      simulation.setFusedTurns(validOptions.containsKey("--V2"));
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      long start = System.nanoTime();
+      simulation.run(pool);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      pool.shutdown();
+      System.out.printf("Played %d games of %d players and %d rounds on %d threads in %.2f s.%n",
+          simulation.getGamesPlayed(), players, rounds, threads, seconds);
+      System.out.printf("%.0f games/s, %.0f games/s/core, %.0f requests/s, %d games stuck.%n",
+          simulation.getGamesPlayed() / seconds, simulation.getGamesPlayed() / seconds / threads,
+          simulation.getRequests() / seconds, simulation.getGamesStuck());
+    } catch (CmdLineExceptions ex) {
+      System.out.println(ex.getMessage());
+      System.out.println(OPTIONS.getUsage());
+    }
+  }
+
+  /**
+   * Helper method that gets the number given to an option.
+   *
+   * @param validOptions the parsed options
+   * @param name the option name
+   * @param defaultValue the value if the option is not given
+   * @return the number
+   */
+  private static int getInt(Map<String, Option> validOptions, String name, int defaultValue) {
+    return validOptions.containsKey(name) ? Integer
+        .parseInt(validOptions.get(name).getSubOptions().get(0)) : defaultValue;
+  }
+}
@@ -0,0 +1,328 @@
+package server.spectator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static server.network.YahtzeeServer.SERVER;
+
+import server.controller.GameController;
+import server.game.DiceVector;
+import server.game.Player;
+import server.game.ScoreCard.Pattern;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The type Spectator feed that holds the event stream of one table for its watchers. The game of
+ * the table encodes every event once into a line of text and publishes it to a ring of the last
+ * events, which the spectator server then writes to every watcher of the table as it is, so the
+ * game only pays for one encoding whatever the number of watchers. Nothing is encoded while the
+ * table has no watcher. The events are compact deltas: a roll, a score choice, a change of turn,
+ * a player joining or leaving, the end of the game and the start of the next one. A watcher that
+ * subscribes, or falls so far behind that the ring has moved past it, is given a snapshot of the
+ * whole table, rendered by the game when asked for, and follows the deltas published after it.
+ *
+ * <p>The events are only published by the thread running the game, and the watchers are only
+ * counted by the spectator server thread.
+ */
+public class SpectatorFeed {
+
+  private static final int CAPACITY = 1024;
+  private static final int MASK = CAPACITY - 1;
+  private GameController controller;
+  private volatile boolean watched;
+  private int watchers;
+  private byte[][] events;
+  private volatile long published;
+  private volatile Snapshot snapshot;
+  private int snapshotCount;
+  private int firstValidSnapshot;
+  private AtomicBoolean snapshotRequested = new AtomicBoolean();
+  private StringBuilder builder = new StringBuilder();
+
+  /**
+   * Instantiates a new Spectator feed.
+   *
+   * @param controller the controller of the table
+   */
+  public SpectatorFeed(GameController controller) {
+    this.controller = controller;
+  }
+
+  /**
+   * Check if the table has any watcher, so its events have to be published.
+   *
+   * @return true or false
+   */
+  public boolean isWatched() {
+    return watched;
+  }
+
+  /**
+   * Publish a roll of the dice.
+   *
+   * @param playerId the player id
+   * @param dices the dice
+   */
+  public void roll(int playerId, DiceVector dices) {
+    begin("WATCH_ROLL").append(playerId).append(' ').append(dices.toString().trim());
+    publish();
+  }
+
+  /**
+   * Publish a score choice.
+   *
+   * @param playerId the player id
+   * @param scoreName the name of the score slot
+   * @param score the score of the slot
+   * @param total the total score of the player
+   */
+  public void score(int playerId, String scoreName, int score, int total) {
+    begin("WATCH_SCORE").append(playerId).append(' ').append(scoreName).append(' ').append(score)
+        .append(' ').append(total);
+    publish();
+  }
+
+  /**
+   * Publish a change of the progress of the game.
+   *
+   * @param round the round
+   * @param playerId the current player id
+   * @param turn the turn
+   * @param state the name of the state
+   */
+  public void progress(int round, int playerId, int turn, String state) {
+    begin("WATCH_TURN").append(round).append(' ').append(playerId).append(' ').append(turn)
+        .append(' ').append(state);
+    publish();
+  }
+
+  /**
+   * Publish a player joining the table.
+   *
+   * @param playerId the player id
+   */
+  public void join(int playerId) {
+    begin("WATCH_JOIN").append(playerId);
+    publish();
+  }
+
+  /**
+   * Publish a player leaving the table.
+   *
+   * @param playerId the player id
+   */
+  public void leave(int playerId) {
+    begin("WATCH_LEAVE").append(playerId);
+    publish();
+  }
+
+  /**
+   * Publish the end of the game.
+   */
+  public void over() {
+    builder.setLength(0);
+    builder.append(SERVER).append(" WATCH_OVER");
+    publish();
+  }
+
+  /**
+   * Publish the start of the next game of the table.
+   *
+   * @param gameNumber the number of the next game
+   */
+  public void reset(int gameNumber) {
+    begin("WATCH_RESET").append(gameNumber);
+    publish();
+  }
+
+  /**
+   * Count a new watcher of the table. Only called by the spectator server thread.
+   */
+  public void watch() {
+    if (watchers++ == 0) {
+      if (events == null) {
+        events = new byte[CAPACITY][];
+      }
+      watched = true;
+      Snapshot last = snapshot;
+      firstValidSnapshot = last == null ? 1 : last.getNumber() + 1;
+    }
+  }
+
+  /**
+   * Count a watcher leaving the table. Only called by the spectator server thread.
+   */
+  public void unwatch() {
+    if (--watchers == 0) {
+      watched = false;
+    }
+  }
+
+  /**
+   * Gets the number of the events published so far, which is also the sequence number of the next
+   * event.
+   *
+   * @return the number of events
+   */
+  public long getPublished() {
+    return published;
+  }
+
+  /**
+   * Gets a published event, which may have been overwritten already if it is more than the capacity
+   * of the ring behind the last one.
+   *
+   * @param sequence the sequence number of the event
+   * @return the encoded event
+   */
+  public byte[] getEvent(long sequence) {
+    return events[(int) (sequence & MASK)];
+  }
+
+  /**
+   * Gets the number of the last events kept by the feed.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return CAPACITY;
+  }
+
+  /**
+   * Gets the last snapshot rendered.
+   *
+   * @return the snapshot, or null if none was rendered yet
+   */
+  public Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Check if a snapshot still shows the table as it is: it was rendered since the table has been
+   * watched without a break, so no event was missed, and nothing was published after it. Only
+   * called by the spectator server thread.
+   *
+   * @param snapshot the snapshot
+   * @return true or false
+   */
+  public boolean isCurrent(Snapshot snapshot) {
+    return snapshot != null && snapshot.getNumber() >= firstValidSnapshot
+        && snapshot.getSequence() == published;
+  }
+
+  /**
+   * Ask the game to render a new snapshot, unless one is already on its way.
+   */
+  public void requestSnapshot() {
+    if (snapshotRequested.compareAndSet(false, true)) {
+      controller.post(this::renderSnapshot);
+    }
+  }
+
+  /**
+   * Helper method that renders the snapshot of the table, on the thread running its game.
+   */
+  private void renderSnapshot() {
+    snapshotRequested.set(false);
+    begin("WATCH_SNAPSHOT").append(controller.getTableId()).append(' ')
+        .append(controller.getGameNumber()).append(' ').append(controller.getCurrentRound())
+        .append(' ').append(controller.getPlayers().isEmpty() ? 0 : controller.getCurrentPlayerId())
+        .append(' ')
+        .append(controller.getTurn()).append(' ')
+        .append(controller.getState().getClass().getSimpleName()).append(' ')
+        .append(controller.getPlayers().size());
+    for (Player player : controller.getPlayers().values()) {
+      builder.append('\n').append(SERVER).append(" WATCH_PLAYER ").append(player.getPlayerId())
+          .append(' ').append(player.getDices().toString().trim());
+      for (Pattern pattern : Pattern.values()) {
+        int score = player.getScore(pattern.getIndex());
+        builder.append(' ').append(pattern.name()).append(' ');
+        if (score < 0) {
+          builder.append('-');
+        } else {
+          builder.append(score);
+        }
+      }
+    }
+    snapshot = new Snapshot(published, ++snapshotCount, encode());
+  }
+
+  /**
+   * Helper method that starts encoding an event.
+   *
+   * @param frame the frame of the event
+   * @return the builder
+   */
+  private StringBuilder begin(String frame) {
+    builder.setLength(0);
+    return builder.append(SERVER).append(' ').append(frame).append(' ');
+  }
+
+  /**
+   * Helper method that publishes the encoded event to the ring.
+   */
+  private void publish() {
+    long sequence = published;
+    events[(int) (sequence & MASK)] = encode();
+    published = sequence + 1;
+  }
+
+  /**
+   * Helper method that turns the builder into the bytes sent to the watchers.
+   *
+   * @return the bytes
+   */
+  private byte[] encode() {
+    return builder.append('\n').toString().getBytes(UTF_8);
+  }
+
+  /**
+   * The type Snapshot that holds the encoded state of the whole table at one point of its event
+   * stream.
+   */
+  public static class Snapshot {
+
+    private long sequence;
+    private int number;
+    private byte[] bytes;
+
+    /**
+     * Instantiates a new Snapshot.
+     *
+     * @param sequence the sequence number of the first event after the snapshot
+     * @param number the number of snapshots rendered so far, this one included
+     * @param bytes the encoded snapshot
+     */
+    Snapshot(long sequence, int number, byte[] bytes) {
+      this.sequence = sequence;
+      this.number = number;
+      this.bytes = bytes;
+    }
+
+    /**
+     * Gets the sequence number of the first event after the snapshot.
+     *
+     * @return the sequence number
+     */
+    public long getSequence() {
+      return sequence;
+    }
+
+    /**
+     * Gets the number of snapshots rendered so far, this one included.
+     *
+     * @return the number
+     */
+    public int getNumber() {
+      return number;
+    }
+
+    /**
+     * Gets the encoded snapshot.
+     *
+     * @return the bytes
+     */
+    public byte[] getBytes() {
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,308 @@
+package server.spectator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static server.network.YahtzeeServer.SERVER;
+
+import server.controller.GameController;
+import server.controller.TableManager;
+import server.log.EventLog;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The type Spectator server that serves the watchers of the tables on a port of its own, so they
+ * never take a seat. A watcher connects and sends one line, WATCH followed by the id of an open
+ * table, then only receives: a snapshot of the table first, then the events of the table as they
+ * are published. All the watchers are served by one thread, which wakes up on a short tick and
+ * writes the events published since to every watcher, by gathering writes of the buffers shared by
+ * all the watchers of the table. The games never wait for a watcher: a watcher that can not keep
+ * up with its table is given a new snapshot once the events it missed are gone.
+ */
+public class SpectatorServer implements Runnable {
+
+  private static final int TICK_MILLIS = 20;
+  private static final int REQUEST_SIZE = 64;
+  private static final int MAX_BATCH = 256;
+  private static final String WATCH = "WATCH";
+  private TableManager tableManager;
+  private ServerSocketChannel serverChannel;
+  private Selector selector;
+  private List<Watcher> watchers = new ArrayList<>();
+  private volatile int watcherCount;
+
+  /**
+   * Instantiates a new Spectator server bound to the given port.
+   *
+   * @param port the port
+   * @param tableManager the table manager of the server
+   * @throws IOException if the port can not be bound
+   */
+  public SpectatorServer(int port, TableManager tableManager) throws IOException {
+    this.tableManager = tableManager;
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(port));
+    serverChannel.configureBlocking(false);
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+  }
+
+  /**
+   * Gets the number of watchers subscribed to a table.
+   *
+   * @return the number of watchers
+   */
+  public int getWatcherCount() {
+    return watcherCount;
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      try {
+        selector.select(TICK_MILLIS);
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          SelectionKey key = iterator.next();
+          iterator.remove();
+          if (key.isValid() && key.isAcceptable()) {
+            accept();
+            continue;
+          }
+          Watcher watcher = (Watcher) key.attachment();
+          if (key.isValid() && key.isWritable()) {
+            watcher.flush();
+          }
+          if (key.isValid() && key.isReadable()) {
+            watcher.read();
+          }
+        }
+        Iterator<Watcher> watcherIterator = watchers.iterator();
+        while (watcherIterator.hasNext()) {
+          Watcher watcher = watcherIterator.next();
+          if (watcher.closed) {
+            watcherIterator.remove();
+          } else {
+            watcher.pump();
+          }
+        }
+        watcherCount = watchers.size();
+      } catch (IOException ex) {
+        EventLog.get().error(0, ex);
+      }
+    }
+  }
+
+  /**
+   * Helper method that accepts a new watcher.
+   *
+   * @throws IOException the io exception
+   */
+  private void accept() throws IOException {
+    SocketChannel channel = serverChannel.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    Watcher watcher = new Watcher(channel);
+    watcher.key = channel.register(selector, SelectionKey.OP_READ, watcher);
+  }
+
+  /**
+   * The type Watcher that represents the connection of one spectator. It is only touched by the
+   * spectator server thread.
+   */
+  private class Watcher {
+
+    private SocketChannel channel;
+    private SelectionKey key;
+    private ByteBuffer request = ByteBuffer.allocate(REQUEST_SIZE);
+    private SpectatorFeed feed;
+    private int tableId;
+    private long cursor;
+    private int awaitedSnapshot = -1;
+    private ByteBuffer[] out = new ByteBuffer[MAX_BATCH + 1];
+    private int first;
+    private int count;
+    private boolean closed;
+
+    /**
+     * Instantiates a new Watcher.
+     *
+     * @param channel the channel
+     */
+    Watcher(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    /**
+     * Read the request of the watcher. Anything sent after it is ignored.
+     */
+    void read() {
+      try {
+        if (feed != null) {
+          request.clear();
+          if (channel.read(request) < 0) {
+            close();
+          }
+          return;
+        }
+        if (channel.read(request) < 0) {
+          close();
+          return;
+        }
+        for (int i = 0; i < request.position(); i++) {
+          if (request.get(i) == '\n') {
+            subscribe(new String(request.array(), 0, i, UTF_8).trim());
+            return;
+          }
+        }
+        if (!request.hasRemaining()) {
+          reject("Request too long.");
+        }
+      } catch (IOException ex) {
+        close();
+      }
+    }
+
+    /**
+     * Queue the snapshot or the events published since the last ones, and write them, unless the
+     * events queued before are not written yet.
+     */
+    void pump() {
+      if (feed == null || first < count) {
+        return;
+      }
+      first = 0;
+      count = 0;
+      if (awaitedSnapshot >= 0) {
+        SpectatorFeed.Snapshot snapshot = feed.getSnapshot();
+        if (snapshot == null || snapshot.getNumber() <= awaitedSnapshot) {
+          return;
+        }
+        out[count++] = ByteBuffer.wrap(snapshot.getBytes());
+        cursor = snapshot.getSequence();
+        awaitedSnapshot = -1;
+      }
+      long published = feed.getPublished();
+      if (published - cursor > feed.getCapacity()) {
+        resync();
+        return;
+      }
+      long end = Math.min(published, cursor + MAX_BATCH);
+      for (long sequence = cursor; sequence < end; sequence++) {
+        out[count++] = ByteBuffer.wrap(feed.getEvent(sequence));
+      }
+      if (feed.getPublished() - cursor > feed.getCapacity()) {
+        resync();
+        return;
+      }
+      cursor = end;
+      flush();
+    }
+
+    /**
+     * Write the queued buffers, as much as the socket takes, and wait for the socket to be
+     * writable again if it did not take everything.
+     */
+    void flush() {
+      try {
+        while (first < count) {
+          if (channel.write(out, first, count - first) == 0) {
+            break;
+          }
+          while (first < count && !out[first].hasRemaining()) {
+            out[first++] = null;
+          }
+        }
+        key.interestOps(first < count ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+            : SelectionKey.OP_READ);
+      } catch (IOException ex) {
+        close();
+      }
+    }
+
+    /**
+     * Helper method that subscribes the watcher to the table it asked for.
+     *
+     * @param line the request
+     */
+    private void subscribe(String line) {
+      String[] strs = line.split(" ");
+      if (strs.length != 2 || !strs[0].equals(WATCH) || !strs[1].matches("^[1-9]\\d{0,8}$")) {
+        reject("Send WATCH <table id>.");
+        return;
+      }
+      tableId = Integer.parseInt(strs[1]);
+      GameController table = tableManager.getTable(tableId);
+      if (table == null) {
+        reject("Table " + tableId + " is not open.");
+        return;
+      }
+      feed = table.getFeed();
+      feed.watch();
+      watchers.add(this);
+      EventLog.get().connection(tableId, 0, "New spectator connected: " + channel.socket()
+          .getInetAddress() + ": " + channel.socket().getPort());
+      resync();
+    }
+
+    /**
+     * Helper method that drops the queued events and waits for a new snapshot of the table, or
+     * takes the last one if nothing happened at the table since.
+     */
+    private void resync() {
+      Arrays.fill(out, 0, count, null);
+      first = 0;
+      count = 0;
+      SpectatorFeed.Snapshot snapshot = feed.getSnapshot();
+      if (feed.isCurrent(snapshot)) {
+        awaitedSnapshot = snapshot.getNumber() - 1;
+        return;
+      }
+      awaitedSnapshot = snapshot == null ? 0 : snapshot.getNumber();
+      feed.requestSnapshot();
+    }
+
+    /**
+     * Helper method that answers a bad request and closes the connection.
+     *
+     * @param reason the reason
+     */
+    private void reject(String reason) {
+      out[0] = ByteBuffer.wrap((SERVER + " WATCH_INVALID " + reason + "\n").getBytes(UTF_8));
+      first = 0;
+      count = 1;
+      flush();
+      close();
+    }
+
+    /**
+     * Helper method that closes the connection and leaves the table.
+     */
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      key.cancel();
+      try {
+        channel.close();
+      } catch (IOException ex) {
+        EventLog.get().error(tableId, ex);
+      }
+      if (feed != null) {
+        feed.unwatch();
+      }
+    }
+  }
+}
@@ -1,9 +1,8 @@
 package server.state;
 
-import static server.network.YahtzeeServer.SYSTEM;
-
 import protocol.FrameExceptions.FrameMsgIdException;
 import server.controller.GameController;
+import server.log.EventLog;
 
 /**
  * The type Game over that represents the game over state.
@@ -22,13 +21,13 @@ public class GameOver extends ServerState {
   @Override
   public void playerQuit(int playerId) {
     if (controller.getCurPlayerNumber() == 1) {
-      System.out.println(
-          SYSTEM + " PLAYER-" + playerId + " quited game. Current player number is " + (
+      EventLog.get().system(controller.getTableId(),
+          "PLAYER-" + playerId + " quited game. Current player number is " + (
               controller.getCurPlayerNumber() - 1) + ". Game service restart.");
       controller.reset();
     } else {
-      System.out.println(
-          SYSTEM + " PLAYER-" + playerId + " quited game. Current player number is " + (
+      EventLog.get().system(controller.getTableId(),
+          "PLAYER-" + playerId + " quited game. Current player number is " + (
               controller.getCurPlayerNumber() - 1) + ".");
       controller.removePlayer(playerId);
     }
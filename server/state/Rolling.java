@@ -27,6 +27,7 @@ public class Rolling extends ServerState {
       keeps[i] = Integer.parseInt(strs[i + 2]);
     }
     controller.getPlayer(playerId).throwDices(keeps);
+    controller.recordRoll(playerId);
     handleTurnNumber(playerId);
   }
 }
@@ -20,16 +20,21 @@ public class RoundOver extends ServerState {
   @Override
   public void ackMessage(int playerId, String[] strs) throws FrameMsgIdException {
     controller.matchMsg(playerId, strs);
-    if (controller.getUnhandledMsg().isEmpty()) {
-      if (controller.isGameOver()) {
-        controller.setState(controller.getGameOver());
-        controller.sendMessageAll("GAME_OVER", controller.getAllPlayersScore());
-      } else {
-        controller.setState(controller.getStartingRound());
-        controller.nextRound();
-        controller.sendMessageAll("INFO", controller.getAllPlayersScore(), false);
-        controller.sendMessageAll("START_ROUND", String.valueOf(controller.getCurrentRound()));
-      }
+    if (controller.getUnhandledMsg().isSettled()) {
+      proceed();
+    }
+  }
+
+  @Override
+  public void proceed() {
+    if (controller.isGameOver()) {
+      controller.setState(controller.getGameOver());
+      controller.sendMessageAll("GAME_OVER", controller.getAllPlayersScore());
+    } else {
+      controller.setState(controller.getStartingRound());
+      controller.nextRound();
+      controller.sendMessageAll("INFO", controller.getAllPlayersScore(), false);
+      controller.sendMessageAll("START_ROUND", String.valueOf(controller.getCurrentRound()));
     }
   }
 }
@@ -2,6 +2,10 @@ package server.state;
 
 import protocol.FrameExceptions.FrameMsgIdException;
 import server.controller.GameController;
+import server.game.Player;
+import server.leaderboard.Leaderboard;
+
+import java.io.IOException;
 
 /**
  * The type Scoring that represents the scoring state..
@@ -18,18 +22,26 @@ public class Scoring extends ServerState {
   }
 
   @Override
-  public void scoreChoiceMessage(int playerId, String[] strs) throws FrameMsgIdException {
+  public void scoreChoiceMessage(int playerId, String[] strs)
+      throws FrameMsgIdException, IOException {
     controller.matchMsg(playerId, strs);
     String scoreName = strs[2];
     try {
-      controller.getPlayer(playerId).chooseScoreSlot(scoreName);
+      Player player = controller.getPlayer(playerId);
+      player.chooseScoreSlot(scoreName);
+      controller.recordScore(playerId, scoreName);
+      Leaderboard.get().update(controller.getGameId(), playerId, player.getTotalScore(), false);
       controller.sendMessage(playerId, "SCORE_CHOICE_VALID",
           controller.getPlayer(playerId).getScoresString(), false);
       controller.sendMessageOther(playerId, "INFO",
           "PLAYER-" + playerId + " chooses score " + controller.getPlayer(playerId)
               .getScoresString(), false);
       controller.setState(controller.getTurnOver());
-      controller.sendMessage(playerId, "TURN_OVER");
+      if (player.isFusedTurns()) {
+        controller.getState().proceed();
+      } else {
+        controller.sendMessage(playerId, "TURN_OVER");
+      }
     } catch (IllegalArgumentException ex) {
       controller.sendMessage(playerId, "SCORE_CHOICE_INVALID",
           controller.getPlayer(playerId).getPossibleScoresString());
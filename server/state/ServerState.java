@@ -1,17 +1,21 @@
 package server.state;
 
-import static server.network.YahtzeeServer.SYSTEM;
+import static protocol.ClientProtocol.VERSION_REGEX;
 
 import protocol.FrameExceptions.FrameMsgIdException;
 import server.controller.GameController;
+import server.controller.GameSnapshot;
+import server.log.EventLog;
 
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 /**
  * The type Server state that represents different behaviours of the Server under different state.
  */
 public abstract class ServerState {
 
+  private static final Pattern VERSION = Pattern.compile(VERSION_REGEX);
   /**
    * The Server game controller.
    */
@@ -32,12 +36,13 @@ public abstract class ServerState {
    * @param playerId the player id
    */
   public void playerQuit(int playerId) {
-    System.out.println(
-        SYSTEM + " PLAYER-" + playerId + " quited game. Current player number is " + (
+    EventLog.get().system(controller.getTableId(),
+        "PLAYER-" + playerId + " quited game. Current player number is " + (
             controller.getCurPlayerNumber() - 1) + ".");
     controller.sendMessageAll("GAME_OVER", "PLAYER-" + playerId + " quited game.");
     if (controller.getLatch().getCount() <= 1) {
-      System.out.println(SYSTEM + " PLAYER-" + playerId + " quited game. Game service restart.");
+      EventLog.get().system(controller.getTableId(),
+          "PLAYER-" + playerId + " quited game. Game service restart.");
       controller.reset();
     } else {
       controller.setState(controller.getGameOver());
@@ -58,6 +63,15 @@ public abstract class ServerState {
         .sendMessage(playerId, "INFO", "You can not send this request in current state.", false);
   }
 
+  /**
+   * Move on once the frames this state waits for have been acknowledged, or once the players may
+   * leave them unacknowledged. Only the states waiting for ACKs do anything.
+   *
+   * @throws IOException the io exception
+   */
+  public void proceed() throws IOException {
+  }
+
   /**
    * Handle keep dice message.
    *
@@ -77,21 +91,31 @@ public abstract class ServerState {
    * @param playerId the player id
    * @param strs the message
    * @throws FrameMsgIdException the frame msg id exception
+   * @throws IOException the io exception
    */
-  public void scoreChoiceMessage(int playerId, String[] strs) throws FrameMsgIdException {
+  public void scoreChoiceMessage(int playerId, String[] strs)
+      throws FrameMsgIdException, IOException {
     controller
         .sendMessage(playerId, "INFO", "You can not send this request in current state.", false);
   }
 
   /**
-   * Handle game state message.
+   * Handle game state message. The game state is sent from the snapshot of the current version of
+   * the game, whose frame is only encoded again once the game has changed. A request naming the
+   * version the player already knows is only sent what changed since.
    *
    * @param playerId the player id
    * @param strs the message
    */
   public void gameStateMessage(int playerId, String[] strs) {
-    controller.sendMessage(playerId, "GAME_STATE", Integer.parseInt(strs[1]),
-        controller.getState() + " " + controller.getAllPlayersScore());
+    int msgId = Integer.parseInt(strs[1]);
+    GameSnapshot snapshot = controller.getGameSnapshot();
+    if (strs.length > 2 && VERSION.matcher(strs[2]).matches()) {
+      controller.sendMessage(playerId, "GAME_STATE", msgId,
+          snapshot.since(Integer.parseInt(strs[2])));
+    } else {
+      controller.sendMessage(playerId, snapshot.getFrame(), msgId);
+    }
   }
 
   /**
@@ -108,6 +132,37 @@ public abstract class ServerState {
         "PLAYER-" + playerId + " sent quit game request. Changing to the last round.", false);
   }
 
+  /**
+   * Start the turn of the current player. A player of the protocol version 2 gets the first roll
+   * together with the start of the turn, instead of acknowledging the start before the roll.
+   *
+   * @throws IOException the io exception
+   */
+  public void startTurn() throws IOException {
+    int playerId = controller.getCurrentPlayerId();
+    controller.setState(controller.getStartingTurn());
+    controller.sendMessageAll("INFO", "PLAYER-" + playerId + " turns now.", false);
+    if (controller.getPlayer(playerId).isFusedTurns()) {
+      rollFirst(playerId, "START_TURN_DICE");
+    } else {
+      controller.sendMessage(playerId, "START_TURN", String.valueOf(controller.getTurn()));
+    }
+  }
+
+  /**
+   * Roll all the dice of a player at the start of the turn.
+   *
+   * @param playerId the player id
+   * @param frame the frame asking the player which dice to keep
+   * @throws IOException the io exception
+   */
+  public void rollFirst(int playerId, String frame) throws IOException {
+    controller.setState(controller.getRolling());
+    controller.getPlayer(playerId).throwDices();
+    controller.recordRoll(playerId);
+    handleTurnNumber(playerId, frame);
+  }
+
   /**
    * Check and handle current turn number.
    *
@@ -115,9 +170,21 @@ public abstract class ServerState {
    * @throws IOException the io exception
    */
   public void handleTurnNumber(int playerId) throws IOException {
+    handleTurnNumber(playerId, "CHOOSE_DICE");
+  }
+
+  /**
+   * Check and handle current turn number, asking the player which dice to keep with the given
+   * frame.
+   *
+   * @param playerId the player id
+   * @param frame the frame
+   * @throws IOException the io exception
+   */
+  public void handleTurnNumber(int playerId, String frame) throws IOException {
     if (!controller.isTurnOver()) {
       controller.addTurn();
-      controller.sendMessage(playerId, "CHOOSE_DICE", controller.getPlayer(playerId).showDices());
+      controller.sendMessage(playerId, frame, controller.getPlayer(playerId).showDices());
       controller.sendMessageOther(playerId, "INFO",
           "PLAYER-" + playerId + " throws dice " + controller.getPlayer(playerId).showDices(),
           false);
@@ -1,9 +1,8 @@
 package server.state;
 
-import static server.network.YahtzeeServer.SYSTEM;
-
 import protocol.FrameExceptions.FrameMsgIdException;
 import server.controller.GameController;
+import server.log.EventLog;
 
 /**
  * The type Starting game that represents the starting game state..
@@ -23,8 +22,8 @@ public class StartingGame extends ServerState {
   public void playerQuit(int playerId) {
     controller.getPlayers().remove(playerId);
     controller.decreaseCurPlayerNumber();
-    System.out.println(
-        SYSTEM + " PLAYER-" + playerId + " quited game. Current player number is " + controller
+    EventLog.get().system(controller.getTableId(),
+        "PLAYER-" + playerId + " quited game. Current player number is " + controller
             .getCurPlayerNumber() + ".");
     if (controller.getCurPlayerNumber() == 0) {
       controller.reset();
@@ -33,8 +32,7 @@ public class StartingGame extends ServerState {
     controller.sendMessageAll("INFO",
         "PLAYER-" + playerId + " quited game. Current player number is " + controller
             .getCurPlayerNumber() + ".", false);
-    controller.clearMsg();
-    controller.sendMessageAll("START_GAME", true);
+    controller.restartGame();
     controller.deleteMsg(playerId);
     controller.clearLatch();
   }
@@ -42,7 +40,7 @@ public class StartingGame extends ServerState {
   @Override
   public void ackMessage(int playerId, String[] strs) throws FrameMsgIdException {
     controller.matchMsg(playerId, strs);
-    if (controller.getUnhandledMsg().isEmpty()) {
+    if (controller.getUnhandledMsg().isSettled()) {
         controller.setUpLatch();
       controller.setState(controller.getStartingRound());
       controller.sendMessageAll("START_ROUND", String.valueOf(controller.getCurrentRound()));
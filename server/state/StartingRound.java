@@ -3,6 +3,8 @@ package server.state;
 import protocol.FrameExceptions.FrameMsgIdException;
 import server.controller.GameController;
 
+import java.io.IOException;
+
 /**
  * The type Starting round that represents the starting round state..
  */
@@ -18,14 +20,15 @@ public class StartingRound extends ServerState {
   }
 
   @Override
-  public void ackMessage(int playerId, String[] strs) throws FrameMsgIdException {
+  public void ackMessage(int playerId, String[] strs) throws FrameMsgIdException, IOException {
     controller.matchMsg(playerId, strs);
-    if (controller.getUnhandledMsg().isEmpty()) {
-      controller.setState(controller.getStartingTurn());
-      controller.sendMessageAll("INFO", "PLAYER-" + controller.getCurrentPlayerId() + " turns now.",
-          false);
-      controller.sendMessage(controller.getCurrentPlayerId(), "START_TURN",
-          String.valueOf(controller.getTurn()));
+    if (controller.getUnhandledMsg().isSettled()) {
+      proceed();
     }
   }
+
+  @Override
+  public void proceed() throws IOException {
+    startTurn();
+  }
 }
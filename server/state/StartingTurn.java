@@ -22,8 +22,6 @@ public class StartingTurn extends ServerState {
   @Override
   public void ackMessage(int playerId, String[] strs) throws FrameMsgIdException, IOException {
     controller.matchMsg(playerId, strs);
-    controller.setState(controller.getRolling());
-    controller.getPlayer(playerId).throwDices();
-    handleTurnNumber(playerId);
+    rollFirst(playerId, "CHOOSE_DICE");
   }
 }
@@ -3,6 +3,8 @@ package server.state;
 import protocol.FrameExceptions.FrameMsgIdException;
 import server.controller.GameController;
 
+import java.io.IOException;
+
 /**
  * The type Turn over that represents the turn over state..
  */
@@ -18,18 +20,19 @@ public class TurnOver extends ServerState {
   }
 
   @Override
-  public void ackMessage(int playerId, String[] strs) throws FrameMsgIdException {
+  public void ackMessage(int playerId, String[] strs) throws FrameMsgIdException, IOException {
     controller.matchMsg(playerId, strs);
+    proceed();
+  }
+
+  @Override
+  public void proceed() throws IOException {
     if (controller.isRoundOver()) {
       controller.setState(controller.getRoundOver());
       controller.sendMessageAll("ROUND_OVER", String.valueOf(controller.getCurrentRound()));
     } else {
-      controller.setState(controller.getStartingTurn());
       controller.switchPlayer();
-      controller.sendMessageAll("INFO", "PLAYER-" + controller.getCurrentPlayerId() + " turns now.",
-          false);
-      controller.sendMessage(controller.getCurrentPlayerId(), "START_TURN",
-          String.valueOf(controller.getTurn()));
+      startTurn();
     }
   }
 }
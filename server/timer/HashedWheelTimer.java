@@ -0,0 +1,229 @@
+package server.timer;
+
+import server.log.EventLog;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The type Hashed wheel timer that runs many short tasks after their delays with a single thread.
+ * Timeouts are hashed by their deadline into the buckets of a wheel that turns one bucket per
+ * tick, so adding and cancelling a timeout are constant time whatever the number of timeouts, and
+ * each tick only looks at one bucket. A timeout further away than one turn of the wheel waits in
+ * its bucket for the remaining turns. Timeouts fire up to one tick late. Any thread can add or
+ * cancel a timeout: the requests are queued without locking and applied by the timer thread at the
+ * next tick. The tasks run on the timer thread, so they must be short, such as posting a task to a
+ * game.
+ */
+public class HashedWheelTimer {
+
+  private long tickNanos;
+  private Timeout[] wheel;
+  private int mask;
+  private long startTime;
+  private long tick;
+  private Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+  private Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+  private volatile boolean stopped;
+
+  /**
+   * Instantiates a new Hashed wheel timer and starts its thread.
+   *
+   * @param name the name of the timer thread
+   * @param tickDuration the duration of a tick
+   * @param unit the unit of the duration
+   * @param ticksPerWheel the number of buckets, rounded up to a power of two
+   */
+  public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+    this.tickNanos = Math.max(unit.toNanos(tickDuration), 1);
+    int size = Integer.highestOneBit(Math.max(2, ticksPerWheel - 1)) << 1;
+    this.wheel = new Timeout[size];
+    this.mask = size - 1;
+    this.startTime = System.nanoTime();
+    Thread worker = new Thread(this::run, name);
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  /**
+   * Run a task once the given delay has passed.
+   *
+   * @param task the task
+   * @param delay the delay
+   * @param unit the unit of the delay
+   * @return the timeout, which can be cancelled
+   */
+  public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+    Timeout timeout = new Timeout(this, task, System.nanoTime() - startTime + unit.toNanos(delay));
+    added.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * Stop the timer. The timeouts left never fire.
+   */
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * Helper method that turns the wheel until the timer is stopped.
+   */
+  private void run() {
+    while (!stopped) {
+      long deadline = tickNanos * (tick + 1);
+      long sleep;
+      while ((sleep = deadline - (System.nanoTime() - startTime)) > 0 && !stopped) {
+        LockSupport.parkNanos(sleep);
+      }
+      removeCancelled();
+      transferAdded();
+      expire((int) (tick & mask), deadline);
+      tick++;
+    }
+  }
+
+  /**
+   * Helper method that unlinks the cancelled timeouts from their buckets.
+   */
+  private void removeCancelled() {
+    Timeout timeout;
+    while ((timeout = cancelled.poll()) != null) {
+      if (timeout.bucket >= 0) {
+        unlink(timeout);
+      }
+    }
+  }
+
+  /**
+   * Helper method that puts the added timeouts into the buckets of their deadlines. A timeout
+   * whose deadline has already passed goes into the current bucket.
+   */
+  private void transferAdded() {
+    Timeout timeout;
+    while ((timeout = added.poll()) != null) {
+      if (timeout.state != Timeout.WAITING) {
+        continue;
+      }
+      long ticks = Math.max(timeout.deadline / tickNanos, tick);
+      timeout.remainingRounds = (ticks - tick) / wheel.length;
+      timeout.bucket = (int) (ticks & mask);
+      timeout.next = wheel[timeout.bucket];
+      if (timeout.next != null) {
+        timeout.next.prev = timeout;
+      }
+      wheel[timeout.bucket] = timeout;
+    }
+  }
+
+  /**
+   * Helper method that fires the timeouts of a bucket whose deadline has come.
+   *
+   * @param bucket the bucket
+   * @param deadline the time of the current tick since the timer started
+   */
+  private void expire(int bucket, long deadline) {
+    Timeout timeout = wheel[bucket];
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+        unlink(timeout);
+        timeout.fire();
+      } else if (timeout.remainingRounds > 0) {
+        timeout.remainingRounds--;
+      }
+      timeout = next;
+    }
+  }
+
+  /**
+   * Helper method that unlinks a timeout from its bucket.
+   *
+   * @param timeout the timeout
+   */
+  private void unlink(Timeout timeout) {
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      wheel[timeout.bucket] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.bucket = -1;
+  }
+
+  /**
+   * The type Timeout that represents one task waiting in the wheel.
+   */
+  public static final class Timeout {
+
+    private static final int WAITING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater
+        .newUpdater(Timeout.class, "state");
+    private HashedWheelTimer timer;
+    private Runnable task;
+    private long deadline;
+    private long remainingRounds;
+    private int bucket = -1;
+    private Timeout prev;
+    private Timeout next;
+    private volatile int state;
+
+    /**
+     * Instantiates a new Timeout.
+     *
+     * @param timer the timer
+     * @param task the task
+     * @param deadline the time the task is due, since the timer started
+     */
+    private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+      this.timer = timer;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancel the timeout, if it has not fired yet.
+     *
+     * @return true if the timeout is cancelled by this call, false otherwise
+     */
+    public boolean cancel() {
+      if (!STATE.compareAndSet(this, WAITING, CANCELLED)) {
+        return false;
+      }
+      timer.cancelled.add(this);
+      return true;
+    }
+
+    /**
+     * Check if the timeout has been cancelled.
+     *
+     * @return true or false
+     */
+    public boolean isCancelled() {
+      return state == CANCELLED;
+    }
+
+    /**
+     * Helper method that runs the task unless the timeout has been cancelled.
+     */
+    private void fire() {
+      if (!STATE.compareAndSet(this, WAITING, EXPIRED)) {
+        return;
+      }
+      try {
+        task.run();
+      } catch (RuntimeException ex) {
+        EventLog.get().error(0, ex);
+      }
+    }
+  }
+}